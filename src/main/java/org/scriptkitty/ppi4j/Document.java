@@ -1,10 +1,41 @@
 package org.scriptkitty.ppi4j;
 
+import org.scriptkitty.ppi4j.tokenizer.LineIndex;
 import org.scriptkitty.ppi4j.visitor.INodeVisitor;
 
 
+/**
+ * root node of a parsed source tree.
+ *
+ * <p>a document does not share any state with other documents. once parsing has completed it may be read from multiple threads as long as
+ * it is not modified.</p>
+ */
 public final class Document extends Node
 {
+    //~ Instance fields
+
+    private final LineIndex lines;
+
+    //~ Constructors
+
+    /**
+     * create a new document w/o a line index, only the first line of the source is known
+     */
+    public Document()
+    {
+        this(new LineIndex());
+    }
+
+    /**
+     * create a new document
+     *
+     * @param lines line start index of the source the document is parsed from
+     */
+    public Document(LineIndex lines)
+    {
+        this.lines = lines;
+    }
+
     //~ Methods
 
     /*
@@ -20,6 +51,38 @@ public final class Document extends Node
         removeReferences();
     }
 
+    /**
+     * @return line start index of the source
+     */
+    public LineIndex getLineIndex()
+    {
+        return lines;
+    }
+
+    /**
+     * @see LineIndex#lineToOffset(int)
+     */
+    public int lineToOffset(int line)
+    {
+        return lines.lineToOffset(line);
+    }
+
+    /**
+     * @see LineIndex#offsetToColumn(int)
+     */
+    public int offsetToColumn(int offset)
+    {
+        return lines.offsetToColumn(offset);
+    }
+
+    /**
+     * @see LineIndex#offsetToLine(int)
+     */
+    public int offsetToLine(int offset)
+    {
+        return lines.offsetToLine(offset);
+    }
+
     /*
      * @see org.scriptkitty.ppi4j.Node#isScoped()
      */
@@ -1,8 +1,6 @@
 package org.scriptkitty.ppi4j;
 
 import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
 
 import org.scriptkitty.ppi4j.exception.EmptyNodeException;
 import org.scriptkitty.ppi4j.structure.ListStructure;
@@ -18,11 +16,6 @@ import org.scriptkitty.ppi4j.visitor.INodeVisitor;
  */
 public abstract class Element
 {
-    //~ Static fields/initializers
-
-    // TODO: implement delete, prune, remove, etc
-    protected static final Map<Element, Element> parent = new WeakHashMap<>();
-
     //~ Enums
 
     public enum Attribute
@@ -34,6 +27,10 @@ public abstract class Element
 
     private Attribute attribute;
 
+    // TODO: implement delete, prune, remove, etc
+    /** node that contains this element, set by the parser as the tree is built */
+    private Node parent;
+
     //~ Methods
 
     /**
@@ -238,9 +235,9 @@ public abstract class Element
      */
     public Element getNextSibling()
     {
-        if (parent.containsKey(this))
+        if (parent != null)
         {
-            return getSibling(parent.get(this).getChildren(), true);
+            return getSibling(parent.getChildren(), true);
         }
 
         return null;
@@ -255,9 +252,9 @@ public abstract class Element
      */
     public Element getNextSignificantSibling()
     {
-        if (parent.containsKey(this))
+        if (parent != null)
         {
-            return getSibling(parent.get(this).getSigChildren(), true);
+            return getSibling(parent.getSigChildren(), true);
         }
 
         return null;
@@ -306,7 +303,7 @@ public abstract class Element
      */
     public Element getParent()
     {
-        return parent.get(this);
+        return parent;
     }
 
     /**
@@ -320,9 +317,9 @@ public abstract class Element
     {
         Element cursor = this;
 
-        while (!(cursor instanceof Statement))
+        while ((cursor != null) && !(cursor instanceof Statement))
         {
-            cursor = parent.get(cursor);
+            cursor = cursor.parent;
         }
 
         return (Statement) cursor;
@@ -335,9 +332,9 @@ public abstract class Element
      */
     public Element getPrevSibling()
     {
-        if (parent.containsKey(this))
+        if (parent != null)
         {
-            return getSibling(parent.get(this).getChildren(), false);
+            return getSibling(parent.getChildren(), false);
         }
 
         return null;
@@ -352,9 +349,9 @@ public abstract class Element
      */
     public Element getPrevSignificantSibling()
     {
-        if (parent.containsKey(this))
+        if (parent != null)
         {
-            return getSibling(parent.get(this).getSigChildren(), false);
+            return getSibling(parent.getSigChildren(), false);
         }
 
         return null;
@@ -425,12 +422,12 @@ public abstract class Element
                 {
                     @Override boolean matches(Element element)
                     {
-                        return parent.containsKey(element);
+                        return (element.parent != null);
                     }
 
                     @Override Element next(Element element)
                     {
-                        return parent.get(element);
+                        return element.parent;
                     }
                 });
         }
@@ -527,9 +524,9 @@ public abstract class Element
      */
     public final boolean parentIs(Class<? extends Element> clazz)
     {
-        if (parent.containsKey(this))
+        if (parent != null)
         {
-            return (getParent().getClass() == clazz);
+            return (parent.getClass() == clazz);
         }
 
         return false;
@@ -570,18 +567,31 @@ public abstract class Element
      */
     protected final Element fetch(List<Element> list, int index)
     {
-        try
-        {
-            return list.get((index >= 0) ? index : (list.size() + index));
-        }
-        catch (IndexOutOfBoundsException e)
+        int position = (index >= 0) ? index : (list.size() + index);
+
+        // checked up front, asking past either end is common and the exception is not cheap
+        if ((position < 0) || (position >= list.size()))
         {
             return null;
         }
+
+        return list.get(position);
     }
 
     /**
-     * remove this element and all that reference it from the <code>parent</code> map
+     * set the parent of this element.
+     *
+     * <p>note: this method is only intended to be used when the element is added to a <code>Node</code>.</p>
+     *
+     * @param parent parent node
+     */
+    final void setParent(Node parent)
+    {
+        this.parent = parent;
+    }
+
+    /**
+     * remove this element and all that reference it from the document tree
      */
     protected void removeReferences()
     {
@@ -590,10 +600,7 @@ public abstract class Element
             child.removeReferences();
         }
 
-        if (parent.containsKey(this))
-        {
-            parent.remove(this);
-        }
+        parent = null;
     }
 
     private Element getSibling(List<Element> kids, boolean next)
@@ -613,12 +620,12 @@ public abstract class Element
     {
         while (element != cursor)
         {
-            if (!parent.containsKey(cursor))
+            if (cursor.parent == null)
             {
                 return false;
             }
 
-            cursor = parent.get(cursor);
+            cursor = cursor.parent;
         }
 
         return true;
@@ -0,0 +1,258 @@
+package org.scriptkitty.ppi4j;
+
+import java.lang.reflect.Constructor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.scriptkitty.ppi4j.statement.BreakStatement;
+import org.scriptkitty.ppi4j.statement.CompoundStatement;
+import org.scriptkitty.ppi4j.statement.DataStatement;
+import org.scriptkitty.ppi4j.statement.EndStatement;
+import org.scriptkitty.ppi4j.statement.ExpressionStatement;
+import org.scriptkitty.ppi4j.statement.GivenStatement;
+import org.scriptkitty.ppi4j.statement.IncludeStatement;
+import org.scriptkitty.ppi4j.statement.NullStatement;
+import org.scriptkitty.ppi4j.statement.PackageStatement;
+import org.scriptkitty.ppi4j.statement.Perl6IncludeStatement;
+import org.scriptkitty.ppi4j.statement.ScheduledStatement;
+import org.scriptkitty.ppi4j.statement.SubStatement;
+import org.scriptkitty.ppi4j.statement.UnmatchedBrace;
+import org.scriptkitty.ppi4j.statement.VariableStatement;
+import org.scriptkitty.ppi4j.statement.WhenStatement;
+import org.scriptkitty.ppi4j.structure.BlockStructure;
+import org.scriptkitty.ppi4j.structure.ConditionStructure;
+import org.scriptkitty.ppi4j.structure.ConstructorStructure;
+import org.scriptkitty.ppi4j.structure.ForLoopStructure;
+import org.scriptkitty.ppi4j.structure.GivenStructure;
+import org.scriptkitty.ppi4j.structure.ListStructure;
+import org.scriptkitty.ppi4j.structure.SubscriptStructure;
+import org.scriptkitty.ppi4j.structure.WhenStructure;
+import org.scriptkitty.ppi4j.token.ArrayIndexToken;
+import org.scriptkitty.ppi4j.token.AttributeToken;
+import org.scriptkitty.ppi4j.token.BOMToken;
+import org.scriptkitty.ppi4j.token.CastToken;
+import org.scriptkitty.ppi4j.token.CommentToken;
+import org.scriptkitty.ppi4j.token.DataToken;
+import org.scriptkitty.ppi4j.token.EndToken;
+import org.scriptkitty.ppi4j.token.HereDocToken;
+import org.scriptkitty.ppi4j.token.LabelToken;
+import org.scriptkitty.ppi4j.token.MagicToken;
+import org.scriptkitty.ppi4j.token.NumberToken;
+import org.scriptkitty.ppi4j.token.OperatorToken;
+import org.scriptkitty.ppi4j.token.PodToken;
+import org.scriptkitty.ppi4j.token.PrototypeToken;
+import org.scriptkitty.ppi4j.token.SeparatorToken;
+import org.scriptkitty.ppi4j.token.StructureToken;
+import org.scriptkitty.ppi4j.token.SymbolToken;
+import org.scriptkitty.ppi4j.token.UnknownToken;
+import org.scriptkitty.ppi4j.token.WhitespaceToken;
+import org.scriptkitty.ppi4j.token.WordToken;
+import org.scriptkitty.ppi4j.token.number.BinaryNumberToken;
+import org.scriptkitty.ppi4j.token.number.ExpNumberToken;
+import org.scriptkitty.ppi4j.token.number.FloatNumberToken;
+import org.scriptkitty.ppi4j.token.number.HexNumberToken;
+import org.scriptkitty.ppi4j.token.number.OctalNumberToken;
+import org.scriptkitty.ppi4j.token.number.VersionNumberToken;
+import org.scriptkitty.ppi4j.token.quote.DoubleQuoteToken;
+import org.scriptkitty.ppi4j.token.quote.InterpolateQuoteToken;
+import org.scriptkitty.ppi4j.token.quote.LiteralQuoteToken;
+import org.scriptkitty.ppi4j.token.quote.SingleQuoteToken;
+import org.scriptkitty.ppi4j.token.quotelike.QLBacktickToken;
+import org.scriptkitty.ppi4j.token.quotelike.QLCommandToken;
+import org.scriptkitty.ppi4j.token.quotelike.QLReadlineToken;
+import org.scriptkitty.ppi4j.token.quotelike.QLRegExpToken;
+import org.scriptkitty.ppi4j.token.quotelike.QLWordsToken;
+import org.scriptkitty.ppi4j.token.regexp.REMatchToken;
+import org.scriptkitty.ppi4j.token.regexp.RESubstituteToken;
+import org.scriptkitty.ppi4j.token.regexp.RETransliterateToken;
+
+
+/**
+ * creates the tokens, statements and structures for a tokenizer and parser.
+ *
+ * <p>every element type shipped with ppi4j has a built-in factory that calls its constructor directly. callers may register a factory w/
+ * an instance to have the tokenizer and parser it is handed to create a custom subclass instead, other instances are not affected, eg:
+ * </p>
+ *
+ * <pre>
+ *   ElementFactory factory = new ElementFactory();
+ *   factory.register(WordToken.class, new IElementFactory&lt;WordToken&gt;()
+ *       {
+ *           public WordToken create()
+ *           {
+ *               return new MyWordToken();
+ *           }
+ *       });
+ *
+ *   DefaultTokenProvider provider = new DefaultTokenProvider(source);
+ *   provider.setElementFactory(factory);
+ * </pre>
+ *
+ * <p>types without a factory fall back to their no-arg constructor, looked up once and cached.</p>
+ */
+public final class ElementFactory
+{
+    //~ Static fields/initializers
+
+    /* only ever holds the element types shipped w/ ppi4j, it is not modified once the class has been initialized */
+    private static final Map<Class<?>, IElementFactory<?>> BUILT_IN = new HashMap<>();
+
+    /* no-arg constructors of the types that do not have a built-in factory */
+    private static final Map<Class<?>, IElementFactory<?>> REFLECTIVE = new ConcurrentHashMap<>();
+
+    static
+    {
+        //J-
+        // nodes
+        builtIn(Statement.class, new IElementFactory<Statement>() { @Override public Statement create() { return new Statement(); } });
+        builtIn(BreakStatement.class, new IElementFactory<BreakStatement>() { @Override public BreakStatement create() { return new BreakStatement(); } });
+        builtIn(CompoundStatement.class, new IElementFactory<CompoundStatement>() { @Override public CompoundStatement create() { return new CompoundStatement(); } });
+        builtIn(DataStatement.class, new IElementFactory<DataStatement>() { @Override public DataStatement create() { return new DataStatement(); } });
+        builtIn(EndStatement.class, new IElementFactory<EndStatement>() { @Override public EndStatement create() { return new EndStatement(); } });
+        builtIn(ExpressionStatement.class, new IElementFactory<ExpressionStatement>() { @Override public ExpressionStatement create() { return new ExpressionStatement(); } });
+        builtIn(GivenStatement.class, new IElementFactory<GivenStatement>() { @Override public GivenStatement create() { return new GivenStatement(); } });
+        builtIn(IncludeStatement.class, new IElementFactory<IncludeStatement>() { @Override public IncludeStatement create() { return new IncludeStatement(); } });
+        builtIn(NullStatement.class, new IElementFactory<NullStatement>() { @Override public NullStatement create() { return new NullStatement(); } });
+        builtIn(PackageStatement.class, new IElementFactory<PackageStatement>() { @Override public PackageStatement create() { return new PackageStatement(); } });
+        builtIn(Perl6IncludeStatement.class, new IElementFactory<Perl6IncludeStatement>() { @Override public Perl6IncludeStatement create() { return new Perl6IncludeStatement(); } });
+        builtIn(ScheduledStatement.class, new IElementFactory<ScheduledStatement>() { @Override public ScheduledStatement create() { return new ScheduledStatement(); } });
+        builtIn(SubStatement.class, new IElementFactory<SubStatement>() { @Override public SubStatement create() { return new SubStatement(); } });
+        builtIn(UnmatchedBrace.class, new IElementFactory<UnmatchedBrace>() { @Override public UnmatchedBrace create() { return new UnmatchedBrace(); } });
+        builtIn(VariableStatement.class, new IElementFactory<VariableStatement>() { @Override public VariableStatement create() { return new VariableStatement(); } });
+        builtIn(WhenStatement.class, new IElementFactory<WhenStatement>() { @Override public WhenStatement create() { return new WhenStatement(); } });
+        builtIn(Structure.class, new IElementFactory<Structure>() { @Override public Structure create() { return new Structure(); } });
+        builtIn(BlockStructure.class, new IElementFactory<BlockStructure>() { @Override public BlockStructure create() { return new BlockStructure(); } });
+        builtIn(ConditionStructure.class, new IElementFactory<ConditionStructure>() { @Override public ConditionStructure create() { return new ConditionStructure(); } });
+        builtIn(ConstructorStructure.class, new IElementFactory<ConstructorStructure>() { @Override public ConstructorStructure create() { return new ConstructorStructure(); } });
+        builtIn(ForLoopStructure.class, new IElementFactory<ForLoopStructure>() { @Override public ForLoopStructure create() { return new ForLoopStructure(); } });
+        builtIn(GivenStructure.class, new IElementFactory<GivenStructure>() { @Override public GivenStructure create() { return new GivenStructure(); } });
+        builtIn(ListStructure.class, new IElementFactory<ListStructure>() { @Override public ListStructure create() { return new ListStructure(); } });
+        builtIn(SubscriptStructure.class, new IElementFactory<SubscriptStructure>() { @Override public SubscriptStructure create() { return new SubscriptStructure(); } });
+        builtIn(WhenStructure.class, new IElementFactory<WhenStructure>() { @Override public WhenStructure create() { return new WhenStructure(); } });
+
+        // tokens
+        builtIn(ArrayIndexToken.class, new IElementFactory<ArrayIndexToken>() { @Override public ArrayIndexToken create() { return new ArrayIndexToken(); } });
+        builtIn(AttributeToken.class, new IElementFactory<AttributeToken>() { @Override public AttributeToken create() { return new AttributeToken(); } });
+        builtIn(BOMToken.class, new IElementFactory<BOMToken>() { @Override public BOMToken create() { return new BOMToken(); } });
+        builtIn(CastToken.class, new IElementFactory<CastToken>() { @Override public CastToken create() { return new CastToken(); } });
+        builtIn(CommentToken.class, new IElementFactory<CommentToken>() { @Override public CommentToken create() { return new CommentToken(); } });
+        builtIn(DataToken.class, new IElementFactory<DataToken>() { @Override public DataToken create() { return new DataToken(); } });
+        builtIn(EndToken.class, new IElementFactory<EndToken>() { @Override public EndToken create() { return new EndToken(); } });
+        builtIn(HereDocToken.class, new IElementFactory<HereDocToken>() { @Override public HereDocToken create() { return new HereDocToken(); } });
+        builtIn(LabelToken.class, new IElementFactory<LabelToken>() { @Override public LabelToken create() { return new LabelToken(); } });
+        builtIn(MagicToken.class, new IElementFactory<MagicToken>() { @Override public MagicToken create() { return new MagicToken(); } });
+        builtIn(NumberToken.class, new IElementFactory<NumberToken>() { @Override public NumberToken create() { return new NumberToken(); } });
+        builtIn(OperatorToken.class, new IElementFactory<OperatorToken>() { @Override public OperatorToken create() { return new OperatorToken(); } });
+        builtIn(PodToken.class, new IElementFactory<PodToken>() { @Override public PodToken create() { return new PodToken(); } });
+        builtIn(PrototypeToken.class, new IElementFactory<PrototypeToken>() { @Override public PrototypeToken create() { return new PrototypeToken(); } });
+        builtIn(SeparatorToken.class, new IElementFactory<SeparatorToken>() { @Override public SeparatorToken create() { return new SeparatorToken(); } });
+        builtIn(StructureToken.class, new IElementFactory<StructureToken>() { @Override public StructureToken create() { return new StructureToken(); } });
+        builtIn(SymbolToken.class, new IElementFactory<SymbolToken>() { @Override public SymbolToken create() { return new SymbolToken(); } });
+        builtIn(UnknownToken.class, new IElementFactory<UnknownToken>() { @Override public UnknownToken create() { return new UnknownToken(); } });
+        builtIn(WhitespaceToken.class, new IElementFactory<WhitespaceToken>() { @Override public WhitespaceToken create() { return new WhitespaceToken(); } });
+        builtIn(WordToken.class, new IElementFactory<WordToken>() { @Override public WordToken create() { return new WordToken(); } });
+        builtIn(BinaryNumberToken.class, new IElementFactory<BinaryNumberToken>() { @Override public BinaryNumberToken create() { return new BinaryNumberToken(); } });
+        builtIn(ExpNumberToken.class, new IElementFactory<ExpNumberToken>() { @Override public ExpNumberToken create() { return new ExpNumberToken(); } });
+        builtIn(FloatNumberToken.class, new IElementFactory<FloatNumberToken>() { @Override public FloatNumberToken create() { return new FloatNumberToken(); } });
+        builtIn(HexNumberToken.class, new IElementFactory<HexNumberToken>() { @Override public HexNumberToken create() { return new HexNumberToken(); } });
+        builtIn(OctalNumberToken.class, new IElementFactory<OctalNumberToken>() { @Override public OctalNumberToken create() { return new OctalNumberToken(); } });
+        builtIn(VersionNumberToken.class, new IElementFactory<VersionNumberToken>() { @Override public VersionNumberToken create() { return new VersionNumberToken(); } });
+        builtIn(DoubleQuoteToken.class, new IElementFactory<DoubleQuoteToken>() { @Override public DoubleQuoteToken create() { return new DoubleQuoteToken(); } });
+        builtIn(InterpolateQuoteToken.class, new IElementFactory<InterpolateQuoteToken>() { @Override public InterpolateQuoteToken create() { return new InterpolateQuoteToken(); } });
+        builtIn(LiteralQuoteToken.class, new IElementFactory<LiteralQuoteToken>() { @Override public LiteralQuoteToken create() { return new LiteralQuoteToken(); } });
+        builtIn(SingleQuoteToken.class, new IElementFactory<SingleQuoteToken>() { @Override public SingleQuoteToken create() { return new SingleQuoteToken(); } });
+        builtIn(QLBacktickToken.class, new IElementFactory<QLBacktickToken>() { @Override public QLBacktickToken create() { return new QLBacktickToken(); } });
+        builtIn(QLCommandToken.class, new IElementFactory<QLCommandToken>() { @Override public QLCommandToken create() { return new QLCommandToken(); } });
+        builtIn(QLReadlineToken.class, new IElementFactory<QLReadlineToken>() { @Override public QLReadlineToken create() { return new QLReadlineToken(); } });
+        builtIn(QLRegExpToken.class, new IElementFactory<QLRegExpToken>() { @Override public QLRegExpToken create() { return new QLRegExpToken(); } });
+        builtIn(QLWordsToken.class, new IElementFactory<QLWordsToken>() { @Override public QLWordsToken create() { return new QLWordsToken(); } });
+        builtIn(REMatchToken.class, new IElementFactory<REMatchToken>() { @Override public REMatchToken create() { return new REMatchToken(); } });
+        builtIn(RESubstituteToken.class, new IElementFactory<RESubstituteToken>() { @Override public RESubstituteToken create() { return new RESubstituteToken(); } });
+        builtIn(RETransliterateToken.class, new IElementFactory<RETransliterateToken>() { @Override public RETransliterateToken create() { return new RETransliterateToken(); } });
+        //J+
+    }
+
+    //~ Instance fields
+
+    private final Map<Class<?>, IElementFactory<?>> custom = new ConcurrentHashMap<>();
+
+    //~ Methods
+
+    /**
+     * create a new instance of the given element type
+     *
+     * @param  clazz element type
+     *
+     * @return new element, which may be a subclass of <code>clazz</code> if a custom factory was registered
+     */
+    public <T extends Element> T create(Class<T> clazz)
+    {
+        IElementFactory<?> factory = custom.isEmpty() ? null : custom.get(clazz);
+
+        if (factory == null)
+        {
+            factory = BUILT_IN.get(clazz);
+        }
+
+        if (factory == null)
+        {
+            factory = REFLECTIVE.get(clazz);
+        }
+
+        if (factory == null)
+        {
+            factory = createReflective(clazz);
+            REFLECTIVE.put(clazz, factory);
+        }
+
+        return clazz.cast(factory.create());
+    }
+
+    /**
+     * register the factory used to create instances of the given element type, replacing any existing factory.
+     *
+     * <p>the factory is only used by this instance.</p>
+     *
+     * @param clazz element type requested by the tokenizer or parser
+     * @param factory factory, which may create a subclass of <code>clazz</code>
+     */
+    public <T extends Element> void register(Class<T> clazz, IElementFactory<? extends T> factory)
+    {
+        custom.put(clazz, factory);
+    }
+
+    private static <T extends Element> void builtIn(Class<T> clazz, IElementFactory<T> factory)
+    {
+        BUILT_IN.put(clazz, factory);
+    }
+
+    private static <T extends Element> IElementFactory<T> createReflective(Class<T> clazz)
+    {
+        try
+        {
+            final Constructor<T> ctor = clazz.getDeclaredConstructor();
+            ctor.setAccessible(true);
+
+            return new IElementFactory<T>()
+                {
+                    @Override public T create()
+                    {
+                        try
+                        {
+                            return ctor.newInstance();
+                        }
+                        catch (ReflectiveOperationException e)
+                        {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                };
+        }
+        catch (NoSuchMethodException e)
+        {
+            throw new RuntimeException(clazz.getName() + " does not have a no-arg constructor", e);
+        }
+    }
+}
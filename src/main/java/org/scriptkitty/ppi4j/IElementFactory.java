@@ -0,0 +1,13 @@
+package org.scriptkitty.ppi4j;
+
+/**
+ * creates new instances of an <code>Element</code> type.
+ *
+ * @see org.scriptkitty.ppi4j.ElementFactory
+ */
+public interface IElementFactory<T extends Element>
+{
+    //~ Methods
+
+    T create();
+}
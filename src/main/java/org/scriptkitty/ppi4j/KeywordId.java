@@ -0,0 +1,164 @@
+package org.scriptkitty.ppi4j;
+
+/**
+ * the keywords and operators the parser makes decisions on.
+ *
+ * <p>the id is looked up once per token from the content it was tokenized from, so the parser can dispatch on it without creating and
+ * hashing a string for every significant token. anything that is not one of the words/operators listed here is <code>NONE</code>.</p>
+ *
+ * @see Token#getKeywordId()
+ */
+public enum KeywordId
+{
+    //~ Enum constants
+
+    NONE(null),
+
+    // scheduled blocks
+    BEGIN("BEGIN"), CHECK("CHECK"), UNITCHECK("UNITCHECK"), INIT("INIT"), END("END"),
+
+    // loading and context
+    PACKAGE("package"), NO("no"), REQUIRE("require"),
+
+    // variable declarations
+    MY("my"), LOCAL("local"), OUR("our"), STATE("state"),
+
+    // compound statements
+    IF("if"), UNLESS("unless"), FOR("for"), FOREACH("foreach"), WHILE("while"), UNTIL("until"),
+
+    // switch statements
+    GIVEN("given"), WHEN("when"), DEFAULT("default"),
+
+    // breaking out of scope
+    REDO("redo"), NEXT("next"), LAST("last"), RETURN("return"), GOTO("goto"),
+
+    // special sections of the file
+    __DATA__("__DATA__"), __END__("__END__"),
+
+    // words that take a block or a constructor
+    SUB("sub"), GREP("grep"), MAP("map"), SORT("sort"), DO("do"), SCALAR("scalar"), BLESS("bless"),
+
+    // operators
+    ASSIGN("="), OR_ASSIGN("||="), COMMA(","), FAT_COMMA("=>"), PLUS("+"), SEMICOLON(";"), CLOSE_CURLY("}");
+
+    //~ Static fields/initializers
+
+    private static final int MAX_LENGTH;
+
+    /* open addressing is not needed, the table is sized so every id hashes to its own slot */
+    private static final KeywordId[] TABLE;
+
+    static
+    {
+        int max = 0;
+        for (KeywordId id : values())
+        {
+            if (id.word != null)
+            {
+                max = Math.max(max, id.word.length());
+            }
+        }
+
+        MAX_LENGTH = max;
+
+        KeywordId[] table = null;
+        for (int size = 64; table == null; size *= 2)
+        {
+            table = createTable(size);
+        }
+
+        TABLE = table;
+    }
+
+    //~ Instance fields
+
+    private final String word;
+
+    //~ Constructors
+
+    private KeywordId(String word)
+    {
+        this.word = word;
+    }
+
+    //~ Methods
+
+    /**
+     * get the id for some token content
+     *
+     * @param  content token content
+     *
+     * @return id, <code>NONE</code> if the content is not a keyword/operator the parser cares about
+     */
+    public static KeywordId lookup(CharSequence content)
+    {
+        int length = content.length();
+        if ((length == 0) || (length > MAX_LENGTH))
+        {
+            return NONE;
+        }
+
+        KeywordId id = TABLE[hash(content) & (TABLE.length - 1)];
+        if ((id == null) || (id.word.length() != length))
+        {
+            return NONE;
+        }
+
+        for (int i = 0; i < length; i++)
+        {
+            if (id.word.charAt(i) != content.charAt(i))
+            {
+                return NONE;
+            }
+        }
+
+        return id;
+    }
+
+    /**
+     * get the word/operator the id represents
+     *
+     * @return word, <code>null</code> for <code>NONE</code>
+     */
+    public String getWord()
+    {
+        return word;
+    }
+
+    /*
+     * returns null if two ids collide at this size
+     */
+    private static KeywordId[] createTable(int size)
+    {
+        KeywordId[] table = new KeywordId[size];
+
+        for (KeywordId id : values())
+        {
+            if (id.word == null)
+            {
+                continue;
+            }
+
+            int slot = hash(id.word) & (size - 1);
+            if (table[slot] != null)
+            {
+                return null;
+            }
+
+            table[slot] = id;
+        }
+
+        return table;
+    }
+
+    private static int hash(CharSequence content)
+    {
+        int hash = 0;
+        for (int i = 0; i < content.length(); i++)
+        {
+            hash = (31 * hash) + content.charAt(i);
+        }
+
+        return hash ^ (hash >>> 7) ^ (hash >>> 15);
+    }
+}
@@ -24,10 +24,10 @@ public abstract class Node extends Element
     private boolean containsHereDoc;
 
     /** list of all the node's child elements */
-    private List<Element> children;
+    private final List<Element> children;
 
     /** list of all the node's significant child elements */
-    private List<Element> significant;
+    private final List<Element> significant;
 
     //~ Constructors
 
@@ -67,7 +67,7 @@ public abstract class Node extends Element
             containsHereDoc = true;
         }
 
-        Element.parent.put(child, this);
+        child.setParent(this);
     }
 
     /**
@@ -452,41 +452,6 @@ public abstract class Node extends Element
         return true;
     }
 
-    /**
-     * convert this node into another one.
-     *
-     * <p>note: this method is only intended to be used by the parser.</p>
-     *
-     * @param  clazz class to convert to
-     *
-     * @return covereted node
-     */
-    protected final Node convert(Class<? extends Node> clazz)
-    {
-        try
-        {
-            Node stmt = clazz.newInstance();
-            stmt.setChildren(children, significant);
-
-            for (Element e : children)
-            {
-                Element.parent.put(e, stmt);
-            }
-
-            return stmt;
-        }
-        catch (InstantiationException e)
-        {
-            // can never happen...
-            throw new RuntimeException(e);
-        }
-        catch (IllegalAccessException e)
-        {
-            // can never happen...
-            throw new RuntimeException(e);
-        }
-    }
-
     /**
      * get a token of the specified class type from the element's significant children
      *
@@ -521,10 +486,4 @@ public abstract class Node extends Element
         children.clear();
         significant.clear();
     }
-
-    private void setChildren(List<Element> children, List<Element> significant)
-    {
-        this.children = children;
-        this.significant = significant;
-    }
 }
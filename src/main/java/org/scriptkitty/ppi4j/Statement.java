@@ -3,9 +3,6 @@ package org.scriptkitty.ppi4j;
 import java.util.List;
 
 import org.scriptkitty.ppi4j.finder.SimpleRule;
-import org.scriptkitty.ppi4j.statement.CompoundStatement;
-import org.scriptkitty.ppi4j.statement.GivenStatement;
-import org.scriptkitty.ppi4j.statement.WhenStatement;
 import org.scriptkitty.ppi4j.util.ElementUtils;
 import org.scriptkitty.ppi4j.visitor.INodeVisitor;
 
@@ -14,9 +11,9 @@ public class Statement extends Node
 {
     //~ Static fields/initializers
 
-    private static String ONE = "1";
+    private static final String ONE = "1";
 
-    private static String SEMI = ";";
+    private static final String SEMI = ";";
 
     //~ Enums
 
@@ -25,10 +22,6 @@ public class Statement extends Node
         CONTINUE, FOR, FOREACH, IF, LABEL, NO, NONE, REQUIRE, UNKNOWN, USE, WHILE
     }
 
-    //~ Instance fields
-
-    private Class<? extends Statement> changeTo;
-
     //~ Constructors
 
     public Statement()
@@ -48,11 +41,6 @@ public class Statement extends Node
         visitor.visit(this);
     }
 
-    public final void changeTo(Class<? extends Statement> changeTo)
-    {
-        this.changeTo = changeTo;
-    }
-
     public final boolean containsStructure(final Class<? extends Structure> clazz)
     {
         List<Structure> list = find(new SimpleRule()
@@ -94,16 +82,6 @@ public class Statement extends Node
         return (!list.isEmpty());
     }
 
-    public final Statement convert()
-    {
-        if (changeTo == null)
-        {
-            return this;
-        }
-
-        return (Statement) super.convert(changeTo);
-    }
-
     /**
      * get the syntatic type of the statement.
      *
@@ -126,11 +104,6 @@ public class Statement extends Node
      */
     public boolean isNormal()
     {
-        if ((changeTo == CompoundStatement.class) || (changeTo == WhenStatement.class) || (changeTo == GivenStatement.class))
-        {
-            return false;
-        }
-
         return true;
     }
 
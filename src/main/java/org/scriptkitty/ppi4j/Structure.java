@@ -45,8 +45,6 @@ public class Structure extends Node
 
     //~ Instance fields
 
-    private Class<? extends Structure> changeTo;
-
     /** finish brace */
     private Token finish;
 
@@ -63,42 +61,6 @@ public class Structure extends Node
         visitor.visit(this);
     }
 
-    /**
-     * set the subclass this structure needs to become before it is added to the document.
-     *
-     * <p>note: this method is only intended to be used by the parser.</p>
-     *
-     * @param changeTo the structure subclass to become
-     */
-    public void changeTo(Class<? extends Structure> changeTo)
-    {
-        this.changeTo = changeTo;
-    }
-
-    /**
-     * converts this structure into one of it's subclasses.
-     *
-     * <p>note: this method is only intended to be used by the parser.</p>
-     *
-     * @return coverted structure
-     */
-    public Structure convert()
-    {
-        if (changeTo == null)
-        {
-            return this;
-        }
-
-        Structure struct = (Structure) super.convert(changeTo);
-
-        struct.setStart(start);
-        struct.setFinish(finish);
-
-        changeTo = null;
-
-        return struct;
-    }
-
     /**
      * get the brace type used by the structure
      *
@@ -315,7 +277,7 @@ public class Structure extends Node
     public void setFinish(Token token)
     {
         this.finish = token;
-        Element.parent.put(token, this);
+        token.setParent(this);
     }
 
     /**
@@ -328,7 +290,7 @@ public class Structure extends Node
     public void setStart(Token token)
     {
         this.start = token;
-        Element.parent.put(token, this);
+        token.setParent(this);
     }
 
     // TODO: add insertBefore
@@ -54,7 +54,13 @@ public abstract class Token extends Element
 
     private int start;
 
-    private StringBuffer content;
+    /*
+     * a String once the content has been requested, a view into the tokenizer's source or a builder while the token is being tokenized
+     */
+    private CharSequence content;
+
+    /* looked up from the content on first use, cleared whenever the content changes */
+    private KeywordId keywordId;
 
     //~ Constructors
 
@@ -86,16 +92,23 @@ public abstract class Token extends Element
      *
      * @param content content
      */
-    public final void appendContent(String content)
+    public final void appendContent(CharSequence content)
     {
         if (this.content == null)
         {
-            setContent(content);
+            setContent(content.toString());
         }
         else
         {
-            this.content.append(content);
+            if (!(this.content instanceof StringBuilder))
+            {
+                this.content = new StringBuilder(this.content);
+            }
+
+            ((StringBuilder) this.content).append(content);
         }
+
+        keywordId = null;
     }
 
     public final Symbol toSymbol()
@@ -132,7 +145,13 @@ public abstract class Token extends Element
     @Override public final String getContent()
     {
         // content will only ever be null if we're the 'null' token
-        return (content != null) ? content.toString() : null;
+        if ((content != null) && !(content instanceof String))
+        {
+            // cache the string, further calls will not allocate
+            content = content.toString();
+        }
+
+        return (String) content;
     }
 
     /*
@@ -167,6 +186,23 @@ public abstract class Token extends Element
         return this;
     }
 
+    /**
+     * get the id of the keyword/operator the token content represents
+     *
+     * <p>the tokenizer assigns the id when the token is finalized, it is looked up from the content w/o creating a string.</p>
+     *
+     * @return id, <code>KeywordId.NONE</code> if the content is not a keyword/operator the parser makes decisions on
+     */
+    public final KeywordId getKeywordId()
+    {
+        if (keywordId == null)
+        {
+            keywordId = (content == null) ? KeywordId.NONE : KeywordId.lookup(content);
+        }
+
+        return keywordId;
+    }
+
     /**
      * get the length of the token content
      *
@@ -257,13 +293,16 @@ public abstract class Token extends Element
     /**
      * set the content of the token - this replaces any content currently set
      *
+     * <p>the sequence is not copied and must not be changed once set.</p>
+     *
      * <p>note: this method is only intended to be used by the tokenizer.</p>
      *
      * @param content content
      */
-    public final void setContent(String content)
+    public final void setContent(CharSequence content)
     {
-        this.content = new StringBuffer(content);
+        this.content = content;
+        this.keywordId = null;
     }
 
     /**
@@ -0,0 +1,31 @@
+package org.scriptkitty.ppi4j.exception;
+
+/**
+ * wraps an <code>InterruptedException</code> thrown where a checked exception can not be, ie: by the <code>Iterator</code> returned from
+ * <code>DocumentBatch.iterator()</code>.
+ */
+public class UncheckedInterruptedException extends RuntimeException
+{
+    //~ Static fields/initializers
+
+    private static final long serialVersionUID = 4519023876520418317L;
+
+    //~ Constructors
+
+    public UncheckedInterruptedException(InterruptedException cause)
+    {
+        super(cause);
+    }
+
+    //~ Methods
+
+    /**
+     * get the wrapped exception
+     *
+     * @return interrupted exception
+     */
+    @Override public InterruptedException getCause()
+    {
+        return (InterruptedException) super.getCause();
+    }
+}
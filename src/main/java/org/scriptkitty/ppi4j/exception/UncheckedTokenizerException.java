@@ -0,0 +1,31 @@
+package org.scriptkitty.ppi4j.exception;
+
+/**
+ * wraps a <code>TokenizerException</code> thrown where a checked exception can not be, ie: by the <code>Iterator</code> returned from
+ * <code>Tokenizer.iterator()</code>.
+ */
+public class UncheckedTokenizerException extends RuntimeException
+{
+    //~ Static fields/initializers
+
+    private static final long serialVersionUID = -3381460817744213305L;
+
+    //~ Constructors
+
+    public UncheckedTokenizerException(TokenizerException cause)
+    {
+        super(cause);
+    }
+
+    //~ Methods
+
+    /**
+     * get the wrapped exception
+     *
+     * @return tokenizer exception
+     */
+    @Override public TokenizerException getCause()
+    {
+        return (TokenizerException) super.getCause();
+    }
+}
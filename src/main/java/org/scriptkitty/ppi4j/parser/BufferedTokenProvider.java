@@ -0,0 +1,61 @@
+package org.scriptkitty.ppi4j.parser;
+
+import org.scriptkitty.ppi4j.Token;
+import org.scriptkitty.ppi4j.exception.TokenizerException;
+
+
+/**
+ * adds look ahead to a provider that does not support it, tokens that have been peeked at or rolled back are kept here and handed out
+ * before any more are read from the provider.
+ */
+final class BufferedTokenProvider implements IPeekingTokenProvider
+{
+    //~ Instance fields
+
+    private final TokenBuffer buffer = new TokenBuffer();
+
+    private final ITokenProvider provider;
+
+    //~ Constructors
+
+    BufferedTokenProvider(ITokenProvider provider)
+    {
+        this.provider = provider;
+    }
+
+    //~ Methods
+
+    /*
+     * @see org.scriptkitty.ppi4j.parser.ITokenProvider#nextToken()
+     */
+    @Override public Token nextToken() throws TokenizerException
+    {
+        if (!buffer.isEmpty())
+        {
+            return buffer.removeFirst();
+        }
+
+        return provider.nextToken();
+    }
+
+    /*
+     * @see org.scriptkitty.ppi4j.parser.IPeekingTokenProvider#peek(int)
+     */
+    @Override public Token peek(int index) throws TokenizerException
+    {
+        while (buffer.size() <= index)
+        {
+            buffer.addLast(provider.nextToken());
+        }
+
+        return buffer.get(index);
+    }
+
+    /*
+     * @see org.scriptkitty.ppi4j.parser.ITokenProvider#rollback(org.scriptkitty.ppi4j.Token)
+     */
+    @Override public void rollback(Token token)
+    {
+        buffer.addFirst(token);
+    }
+}
@@ -1,17 +1,26 @@
 package org.scriptkitty.ppi4j.parser;
 
-import java.util.Stack;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
 
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+
+import org.scriptkitty.ppi4j.ElementFactory;
 import org.scriptkitty.ppi4j.Token;
 import org.scriptkitty.ppi4j.exception.TokenizerException;
+import org.scriptkitty.ppi4j.tokenizer.LineIndex;
 import org.scriptkitty.ppi4j.tokenizer.Tokenizer;
 
 
-public class DefaultTokenProvider implements ITokenProvider
+public class DefaultTokenProvider implements IPeekingTokenProvider, ILineIndexProvider, Closeable
 {
     //~ Instance fields
 
-    private Stack<Token> rollback;
+    /* tokens that have been read ahead or rolled back, handed out before any more are read from the tokenizer */
+    private final TokenBuffer buffer = new TokenBuffer();
 
     private Tokenizer tokenizer;
 
@@ -19,30 +28,117 @@ public class DefaultTokenProvider implements ITokenProvider
 
     public DefaultTokenProvider(String source)
     {
-        this.rollback = new Stack<>();
-        this.tokenizer = new Tokenizer(source);
+        this(new Tokenizer(source));
+    }
+
+    public DefaultTokenProvider(Reader reader)
+    {
+        this(new Tokenizer(reader));
+    }
+
+    public DefaultTokenProvider(ReadableByteChannel channel, Charset charset)
+    {
+        this(new Tokenizer(channel, charset));
+    }
+
+    public DefaultTokenProvider(Path path, Charset charset) throws IOException
+    {
+        this(new Tokenizer(path, charset));
+    }
+
+    private DefaultTokenProvider(Tokenizer tokenizer)
+    {
+        this.tokenizer = tokenizer;
     }
 
     //~ Methods
 
+    /*
+     * @see java.io.Closeable#close()
+     */
+    @Override public void close() throws IOException
+    {
+        tokenizer.close();
+    }
+
+    /**
+     * @return factory used to create the tokens and the nodes of the tree
+     *
+     * @see #setElementFactory(ElementFactory)
+     */
+    public ElementFactory getElementFactory()
+    {
+        return tokenizer.getElementFactory();
+    }
+
+    /*
+     * @see org.scriptkitty.ppi4j.parser.ILineIndexProvider#getLineIndex()
+     */
+    @Override public LineIndex getLineIndex()
+    {
+        return tokenizer.getLineIndex();
+    }
+
     /*
      * @see org.scriptkitty.ppi4j.lexer.ITokenProvider#nextToken()
      */
     @Override public Token nextToken() throws TokenizerException
     {
-        if (!rollback.isEmpty())
+        if (!buffer.isEmpty())
         {
-            return rollback.pop();
+            return buffer.removeFirst();
         }
 
         return tokenizer.next();
     }
 
+    /*
+     * @see org.scriptkitty.ppi4j.parser.IPeekingTokenProvider#peek(int)
+     */
+    @Override public Token peek(int index) throws TokenizerException
+    {
+        while (buffer.size() <= index)
+        {
+            buffer.addLast(tokenizer.next());
+        }
+
+        return buffer.get(index);
+    }
+
+    /**
+     * set the factory used to create tokens, it is also used by the parser to create the statements and structures of the tree.
+     *
+     * @param  factory element factory
+     *
+     * @throws IllegalStateException if tokens have already been provided
+     *
+     * @see Tokenizer#setElementFactory(ElementFactory)
+     */
+    public void setElementFactory(ElementFactory factory)
+    {
+        tokenizer.setElementFactory(factory);
+    }
+
+    /**
+     * only provide significant tokens, the parser will then build a tree w/o whitespace, comments, pod or the text after
+     * <code>__END__</code> or <code>__DATA__</code>.
+     *
+     * @param  significantOnly <code>true</code> to skip insignificant tokens
+     *
+     * @throws IllegalStateException if tokens have already been provided
+     *
+     * @see Tokenizer#setSignificantOnly(boolean)
+     */
+    public void setSignificantOnly(boolean significantOnly)
+    {
+        tokenizer.setSignificantOnly(significantOnly);
+    }
+
     /*
      * @see org.scriptkitty.ppi4j.lexer.ITokenProvider#rollback(org.scriptkitty.ppi4j.ast.Token)
      */
     @Override public void rollback(Token token)
     {
-        rollback.push(token);
+        buffer.addFirst(token);
     }
 }
@@ -0,0 +1,325 @@
+package org.scriptkitty.ppi4j.parser;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.scriptkitty.ppi4j.Document;
+import org.scriptkitty.ppi4j.exception.UncheckedInterruptedException;
+
+
+/**
+ * a set of sources submitted to a <code>ParallelParser</code>.
+ *
+ * <p>results are made available in the order parsing completes, not the order the sources were submitted. iterating over the batch blocks
+ * until the next result is ready and ends once every source has been reported.</p>
+ */
+public final class DocumentBatch implements Iterable<ParseResult>
+{
+    //~ Instance fields
+
+    private final long timeout;
+
+    private final AtomicInteger remaining;
+
+    private final BlockingQueue<ParseResult> completed;
+
+    private final Executor executor;
+
+    private final List<ParseTask> tasks;
+
+    private final ScheduledExecutorService timer;
+
+    //~ Constructors
+
+    DocumentBatch(Executor executor, ScheduledExecutorService timer, long timeout)
+    {
+        this.executor = executor;
+        this.timer = timer;
+        this.timeout = timeout;
+
+        this.tasks = new ArrayList<>();
+        this.completed = new LinkedBlockingQueue<>();
+        this.remaining = new AtomicInteger();
+    }
+
+    //~ Methods
+
+    /**
+     * cancel any sources that have not finished parsing.
+     *
+     * <p>cancelled sources are still reported, with a <code>CancellationException</code> as their error.</p>
+     */
+    public void cancel()
+    {
+        for (ParseTask task : getTasks())
+        {
+            task.cancel(true);
+        }
+    }
+
+    /**
+     * iterate over the results as they complete, <code>next()</code> waits for the next one.
+     *
+     * <p>the iterator can not throw a checked exception, so a thread that is interrupted while waiting has its interrupt status restored
+     * and gets an <code>UncheckedInterruptedException</code> whose cause is the <code>InterruptedException</code>.</p>
+     *
+     * @throws UncheckedInterruptedException from <code>next()</code> if interrupted while waiting
+     *
+     * @see    java.lang.Iterable#iterator()
+     */
+    @Override public Iterator<ParseResult> iterator()
+    {
+        return new Iterator<ParseResult>()
+            {
+                @Override public boolean hasNext()
+                {
+                    return (remaining.get() > 0);
+                }
+
+                @Override public ParseResult next()
+                {
+                    try
+                    {
+                        ParseResult result = take();
+                        if (result == null)
+                        {
+                            throw new NoSuchElementException();
+                        }
+
+                        return result;
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        throw new UncheckedInterruptedException(e);
+                    }
+                }
+
+                @Override public void remove()
+                {
+                    throw new UnsupportedOperationException();
+                }
+            };
+    }
+
+    /**
+     * get the next completed result, waiting up to the given time if necessary.
+     *
+     * @param  wait time to wait
+     * @param  unit unit of <code>wait</code>
+     *
+     * @return next result or <code>null</code> if all results have been returned or none completed in time
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public ParseResult poll(long wait, TimeUnit unit) throws InterruptedException
+    {
+        if (!reserve())
+        {
+            return null;
+        }
+
+        ParseResult result = null;
+
+        try
+        {
+            result = completed.poll(wait, unit);
+        }
+        finally
+        {
+            if (result == null)
+            {
+                // nothing was taken, give the slot back
+                remaining.incrementAndGet();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * get the number of sources in this batch
+     *
+     * @return number of sources
+     */
+    public int size()
+    {
+        return getTasks().size();
+    }
+
+    /**
+     * get the next completed result, waiting if necessary.
+     *
+     * @return next result or <code>null</code> if all results have been returned
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public ParseResult take() throws InterruptedException
+    {
+        if (!reserve())
+        {
+            return null;
+        }
+
+        ParseResult result = null;
+
+        try
+        {
+            result = completed.take();
+        }
+        finally
+        {
+            if (result == null)
+            {
+                remaining.incrementAndGet();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * queue a source for parsing.
+     *
+     * <p>note: this method is only intended to be used by the <code>ParallelParser</code>.</p>
+     *
+     * @param name source name
+     * @param callable parses the source
+     */
+    void submit(String name, Callable<Document> callable)
+    {
+        ParseTask task = new ParseTask(name, callable);
+
+        synchronized (tasks)
+        {
+            tasks.add(task);
+        }
+
+        remaining.incrementAndGet();
+
+        executor.execute(task);
+    }
+
+    private List<ParseTask> getTasks()
+    {
+        synchronized (tasks)
+        {
+            return new ArrayList<>(tasks);
+        }
+    }
+
+    /*
+     * claim one of the results that have not been returned yet, no lock is held while the caller waits for it to complete
+     */
+    private boolean reserve()
+    {
+        while (true)
+        {
+            int count = remaining.get();
+            if (count == 0)
+            {
+                return false;
+            }
+
+            if (remaining.compareAndSet(count, count - 1))
+            {
+                return true;
+            }
+        }
+    }
+
+    //~ Inner Classes
+
+    private class ParseTask extends FutureTask<Document>
+    {
+        private final String name;
+
+        private volatile boolean timedOut;
+
+        ParseTask(String name, Callable<Document> callable)
+        {
+            super(callable);
+            this.name = name;
+        }
+
+        /*
+         * @see java.util.concurrent.FutureTask#run()
+         */
+        @Override public void run()
+        {
+            ScheduledFuture<?> watchdog = null;
+
+            if ((timeout > 0) && !isDone())
+            {
+                watchdog = timer.schedule(new Runnable()
+                        {
+                            @Override public void run()
+                            {
+                                timedOut = true;
+                                cancel(true);
+                            }
+                        }, timeout, TimeUnit.MILLISECONDS);
+            }
+
+            try
+            {
+                super.run();
+            }
+            finally
+            {
+                if (watchdog != null)
+                {
+                    watchdog.cancel(false);
+                }
+            }
+        }
+
+        /*
+         * @see java.util.concurrent.FutureTask#done()
+         */
+        @Override protected void done()
+        {
+            completed.add(createResult());
+        }
+
+        private ParseResult createResult()
+        {
+            try
+            {
+                return new ParseResult(name, get(), null);
+            }
+            catch (ExecutionException e)
+            {
+                return new ParseResult(name, null, e.getCause());
+            }
+            catch (CancellationException e)
+            {
+                if (timedOut)
+                {
+                    return new ParseResult(name, null, new TimeoutException(name + " exceeded " + timeout + "ms"));
+                }
+
+                return new ParseResult(name, null, e);
+            }
+            catch (InterruptedException e)
+            {
+                // not reached, get() neither blocks nor checks for interruption once the task is done
+                return new ParseResult(name, null, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.scriptkitty.ppi4j.parser;
+
+import org.scriptkitty.ppi4j.tokenizer.LineIndex;
+
+
+/**
+ * implemented by an <code>ITokenProvider</code> that records where the lines of its source start.
+ *
+ * <p>the parser hands the index to the <code>Document</code> it creates. documents parsed from a provider that does not implement this
+ * interface only know about their first line.</p>
+ */
+public interface ILineIndexProvider
+{
+    //~ Methods
+
+    /**
+     * @return line start index of the source being tokenized
+     */
+    LineIndex getLineIndex();
+}
@@ -0,0 +1,28 @@
+package org.scriptkitty.ppi4j.parser;
+
+import org.scriptkitty.ppi4j.Token;
+import org.scriptkitty.ppi4j.exception.TokenizerException;
+
+
+/**
+ * an <code>ITokenProvider</code> that can look ahead w/o consuming any tokens.
+ *
+ * <p>the parser looks ahead through this interface when the provider implements it, any other provider is wrapped in a buffer that reads
+ * ahead and rolls back on its behalf.</p>
+ */
+public interface IPeekingTokenProvider extends ITokenProvider
+{
+    //~ Methods
+
+    /**
+     * look ahead w/o consuming any tokens
+     *
+     * @param  index <code>0</code> for the token the next call to <code>nextToken()</code> will return, <code>1</code> for the one after
+     *               it, etc
+     *
+     * @return token, <code>Token.EOF</code> once the end of the source is reached
+     *
+     * @throws TokenizerException if the source can not be tokenized
+     */
+    Token peek(int index) throws TokenizerException;
+}
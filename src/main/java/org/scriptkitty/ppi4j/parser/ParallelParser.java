@@ -0,0 +1,213 @@
+package org.scriptkitty.ppi4j.parser;
+
+import java.io.IOException;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.scriptkitty.ppi4j.Document;
+import org.scriptkitty.ppi4j.util.IErrorProxy;
+import org.scriptkitty.ppi4j.util.MappedFileReader;
+
+
+/**
+ * parses many sources at once, each on its own <code>Parser</code>, using an <code>ExecutorService</code>.
+ *
+ * <p>results are streamed back through the returned <code>DocumentBatch</code> as each source completes. files are memory-mapped
+ * and decoded incrementally on the worker threads so reading and parsing both scale with the size of the executor.</p>
+ */
+public final class ParallelParser
+{
+    //~ Instance fields
+
+    private final boolean owner;
+
+    private long timeout;
+
+    private Charset charset;
+
+    private final ExecutorService executor;
+
+    private IErrorProxy proxy;
+
+    private final ScheduledThreadPoolExecutor timer;
+
+    //~ Constructors
+
+    /**
+     * create a parallel parser backed by a <code>ForkJoinPool</code> sized to the number of available processors.
+     *
+     * <p>the pool is owned by this parser and is released by <code>shutdown()</code>.</p>
+     */
+    public ParallelParser()
+    {
+        this(new ForkJoinPool(), true);
+    }
+
+    /**
+     * create a parallel parser backed by the given executor.
+     *
+     * <p>the executor is not shut down by <code>shutdown()</code>.</p>
+     *
+     * @param executor executor used to read and parse sources
+     */
+    public ParallelParser(ExecutorService executor)
+    {
+        this(executor, false);
+    }
+
+    private ParallelParser(ExecutorService executor, boolean owner)
+    {
+        this.executor = executor;
+        this.owner = owner;
+
+        this.charset = StandardCharsets.UTF_8;
+
+        this.timer = new ScheduledThreadPoolExecutor(1, new ThreadFactory()
+                {
+                    @Override public Thread newThread(Runnable r)
+                    {
+                        Thread thread = new Thread(r, "ppi4j-parse-timeout");
+                        thread.setDaemon(true);
+
+                        return thread;
+                    }
+                });
+
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    //~ Methods
+
+    /**
+     * read and parse a collection of files.
+     *
+     * @param  paths files to parse
+     *
+     * @return batch that reports a result for each file, named by its path
+     */
+    public DocumentBatch parse(Collection<Path> paths)
+    {
+        DocumentBatch batch = createBatch();
+
+        for (final Path path : paths)
+        {
+            batch.submit(path.toString(), new Callable<Document>()
+                {
+                    @Override public Document call() throws Exception
+                    {
+                        try (DefaultTokenProvider provider = createProvider(path))
+                        {
+                            return parse(provider);
+                        }
+                    }
+                });
+        }
+
+        return batch;
+    }
+
+    /**
+     * parse a collection of in-memory sources.
+     *
+     * @param  sources map of source name to source code
+     *
+     * @return batch that reports a result for each source
+     */
+    public DocumentBatch parseSources(Map<String, String> sources)
+    {
+        DocumentBatch batch = createBatch();
+
+        for (final Map.Entry<String, String> entry : sources.entrySet())
+        {
+            batch.submit(entry.getKey(), new Callable<Document>()
+                {
+                    @Override public Document call() throws Exception
+                    {
+                        return parse(new DefaultTokenProvider(entry.getValue()));
+                    }
+                });
+        }
+
+        return batch;
+    }
+
+    /**
+     * set the charset used to decode files, defaults to <code>UTF-8</code>
+     *
+     * @param charset file charset
+     */
+    public void setCharset(Charset charset)
+    {
+        this.charset = charset;
+    }
+
+    /**
+     * set the error proxy handed to each <code>Parser</code>
+     *
+     * @param proxy error proxy, or <code>null</code> to suppress errors
+     */
+    public void setErrorProxy(IErrorProxy proxy)
+    {
+        this.proxy = proxy;
+    }
+
+    /**
+     * set the maximum time a single source may spend being read and parsed.
+     *
+     * <p>the timeout applies to batches created after it is set. a source that exceeds it is reported with a <code>TimeoutException</code>.
+     * </p>
+     *
+     * @param timeout maximum time, or <code>0</code> for no limit
+     * @param unit unit of <code>timeout</code>
+     */
+    public void setTimeout(long timeout, TimeUnit unit)
+    {
+        this.timeout = unit.toMillis(timeout);
+    }
+
+    /**
+     * release the threads used by this parser.
+     *
+     * <p>an executor passed to the constructor is left running.</p>
+     */
+    public void shutdown()
+    {
+        timer.shutdownNow();
+
+        if (owner)
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private DocumentBatch createBatch()
+    {
+        return new DocumentBatch(executor, timer, timeout);
+    }
+
+    private DefaultTokenProvider createProvider(Path path) throws IOException
+    {
+        if (MappedFileReader.isSupported(charset))
+        {
+            return new DefaultTokenProvider(MappedFileReader.open(path, charset));
+        }
+
+        return new DefaultTokenProvider(path, charset);
+    }
+
+    private Document parse(ITokenProvider provider) throws Exception
+    {
+        return ParserFactory.createParser(provider, proxy).parse();
+    }
+}
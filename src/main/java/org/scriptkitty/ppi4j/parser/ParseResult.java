@@ -0,0 +1,80 @@
+package org.scriptkitty.ppi4j.parser;
+
+import org.scriptkitty.ppi4j.Document;
+
+
+/**
+ * outcome of parsing a single source as part of a <code>DocumentBatch</code>.
+ */
+public final class ParseResult
+{
+    //~ Instance fields
+
+    private final Document document;
+
+    private final String name;
+
+    private final Throwable error;
+
+    //~ Constructors
+
+    ParseResult(String name, Document document, Throwable error)
+    {
+        this.name = name;
+        this.document = document;
+        this.error = error;
+    }
+
+    //~ Methods
+
+    /**
+     * get the parsed document
+     *
+     * @return document or <code>null</code> if parsing failed
+     */
+    public Document getDocument()
+    {
+        return document;
+    }
+
+    /**
+     * get the reason parsing failed.
+     *
+     * <p>a source that timed out reports a <code>TimeoutException</code>, a cancelled source reports a <code>CancellationException</code>.
+     * </p>
+     *
+     * @return error or <code>null</code> if parsing succeeded
+     */
+    public Throwable getError()
+    {
+        return error;
+    }
+
+    /**
+     * get the name of the parsed source
+     *
+     * @return source name, or the file path for sources read from disk
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * was the source parsed successfully?
+     *
+     * @return <code>true</code> if a document is available, <code>false</code> otherwise
+     */
+    public boolean isSuccess()
+    {
+        return (error == null);
+    }
+
+    /*
+     * @see java.lang.Object#toString()
+     */
+    @Override public String toString()
+    {
+        return name + (isSuccess() ? " [ok]" : " [" + error + "]");
+    }
+}
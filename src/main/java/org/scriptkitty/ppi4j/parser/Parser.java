@@ -1,13 +1,15 @@
 package org.scriptkitty.ppi4j.parser;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.Stack;
 
 import org.scriptkitty.ppi4j.Document;
 import org.scriptkitty.ppi4j.Element;
+import org.scriptkitty.ppi4j.ElementFactory;
+import org.scriptkitty.ppi4j.KeywordId;
 import org.scriptkitty.ppi4j.Node;
 import org.scriptkitty.ppi4j.Statement;
 import org.scriptkitty.ppi4j.Structure;
@@ -50,89 +52,79 @@ import org.scriptkitty.ppi4j.util.IErrorProxy;
 
 
 /**
+ * builds a <code>Document</code> from the tokens supplied by an <code>ITokenProvider</code>.
+ *
+ * <p>a parser instance is not thread safe, but parsers share no mutable state so independent instances may be used to parse different
+ * sources from multiple threads at the same time.</p>
  */
 public final class Parser
 {
     //~ Static fields/initializers
 
-    private static final Set<String> BLOCKS = new HashSet<String>()
-    {
-        private static final long serialVersionUID = 6527452436640141537L;
-
-        {
-            //J-
-            add("sub"); add("grep"); add("map"); add("sort"); add("do");
-            //J+
-        }
-    };
-
-    private static final Set<String> CTORS = new HashSet<String>()
-    {
-        private static final long serialVersionUID = 6202294787825693419L;
-
-        {
-            //J-
-            // hash constructors
-            add("scalar"); add("="); add("||="); add(","); add("=>");
-            // per perlref
-            add("+");
-            // per perlref
-            add("return");
-            // programatic -- perlfunc says first arg is a reference and 'bless {; ...} failes to compile
-            add("bless");
-            //J+
-        }
-    };
+    private static final Set<KeywordId> BLOCKS = EnumSet.of(KeywordId.SUB, KeywordId.GREP, KeywordId.MAP, KeywordId.SORT, KeywordId.DO);
+
+    //J-
+    private static final Set<KeywordId> CTORS = EnumSet.of(
+        // hash constructors
+        KeywordId.SCALAR, KeywordId.ASSIGN, KeywordId.OR_ASSIGN, KeywordId.COMMA, KeywordId.FAT_COMMA,
+        // per perlref
+        KeywordId.PLUS,
+        // per perlref
+        KeywordId.RETURN,
+        // programatic -- perlfunc says first arg is a reference and 'bless {; ...} failes to compile
+        KeywordId.BLESS);
+    //J+
 
-    private static Map<String, Class<? extends Statement>> STMTS = new HashMap<String, Class<? extends Statement>>()
+    private static final Map<KeywordId, Class<? extends Statement>> STMTS =
+        new EnumMap<KeywordId, Class<? extends Statement>>(KeywordId.class)
     {
         private static final long serialVersionUID = -709562570341786376L;
 
         {
 
             // these affect timing of execution
-            put("BEGIN", ScheduledStatement.class);
-            put("CHECK", ScheduledStatement.class);
-            put("UNITCHECK", ScheduledStatement.class);
-            put("INIT", ScheduledStatement.class);
-            put("END", ScheduledStatement.class);
+            put(KeywordId.BEGIN, ScheduledStatement.class);
+            put(KeywordId.CHECK, ScheduledStatement.class);
+            put(KeywordId.UNITCHECK, ScheduledStatement.class);
+            put(KeywordId.INIT, ScheduledStatement.class);
+            put(KeywordId.END, ScheduledStatement.class);
 
             // loading and context statements
-            put("package", PackageStatement.class);
-            put("no", IncludeStatement.class);
-            put("require", IncludeStatement.class);
+            put(KeywordId.PACKAGE, PackageStatement.class);
+            put(KeywordId.NO, IncludeStatement.class);
+            put(KeywordId.REQUIRE, IncludeStatement.class);
 
             // 'use' and 'sub' statements are handled outside of this map
 
             // variable declarations
-            put("my", VariableStatement.class);
-            put("local", VariableStatement.class);
-            put("our", VariableStatement.class);
-            put("state", VariableStatement.class);
+            put(KeywordId.MY, VariableStatement.class);
+            put(KeywordId.LOCAL, VariableStatement.class);
+            put(KeywordId.OUR, VariableStatement.class);
+            put(KeywordId.STATE, VariableStatement.class);
 
             // compound statements
-            put("if", CompoundStatement.class);
-            put("unless", CompoundStatement.class);
-            put("for", CompoundStatement.class);
-            put("foreach", CompoundStatement.class);
-            put("while", CompoundStatement.class);
-            put("until", CompoundStatement.class);
+            put(KeywordId.IF, CompoundStatement.class);
+            put(KeywordId.UNLESS, CompoundStatement.class);
+            put(KeywordId.FOR, CompoundStatement.class);
+            put(KeywordId.FOREACH, CompoundStatement.class);
+            put(KeywordId.WHILE, CompoundStatement.class);
+            put(KeywordId.UNTIL, CompoundStatement.class);
 
             // switch statements
-            put("given", GivenStatement.class);
-            put("when", WhenStatement.class);
-            put("default", WhenStatement.class);
+            put(KeywordId.GIVEN, GivenStatement.class);
+            put(KeywordId.WHEN, WhenStatement.class);
+            put(KeywordId.DEFAULT, WhenStatement.class);
 
             // various ways to break out of scope
-            put("redo", BreakStatement.class);
-            put("next", BreakStatement.class);
-            put("last", BreakStatement.class);
-            put("return", BreakStatement.class);
-            put("goto", BreakStatement.class);
+            put(KeywordId.REDO, BreakStatement.class);
+            put(KeywordId.NEXT, BreakStatement.class);
+            put(KeywordId.LAST, BreakStatement.class);
+            put(KeywordId.RETURN, BreakStatement.class);
+            put(KeywordId.GOTO, BreakStatement.class);
 
             // special sections of the file
-            put("__DATA__", DataStatement.class);
-            put("__END__", EndStatement.class);
+            put(KeywordId.__DATA__, DataStatement.class);
+            put(KeywordId.__END__, EndStatement.class);
         }
     };
 
@@ -142,7 +134,14 @@ public final class Parser
 
     private ITokenProvider provider;
 
-    private Stack<Token> delayed = new Stack<>();
+    /* the provider, or a buffer around it if it can not look ahead itself */
+    private final IPeekingTokenProvider tokens;
+
+    /* creates the statements and structures, custom factories are handed in w/ the provider */
+    private final ElementFactory factory;
+
+    /* insignificant tokens read while looking for the next significant one, they are added to the tree w/ the next element */
+    private final TokenBuffer delayed = new TokenBuffer();
 
     //~ Constructors
 
@@ -150,6 +149,10 @@ public final class Parser
     {
         this.proxy = proxy;
         this.provider = provider;
+        this.tokens = (provider instanceof IPeekingTokenProvider) ? (IPeekingTokenProvider) provider : new BufferedTokenProvider(provider);
+
+        this.factory = (provider instanceof DefaultTokenProvider) ? ((DefaultTokenProvider) provider).getElementFactory()
+                                                                  : new ElementFactory();
     }
 
     //~ Methods
@@ -157,12 +160,16 @@ public final class Parser
     public Document parse() throws TokenizerException, ParserException
     {
         Token token = Token.NULL;
-        Document document = new Document();
+        Document document = (provider instanceof ILineIndexProvider) ? new Document(((ILineIndexProvider) provider).getLineIndex())
+                                                                      : new Document();
 
         try
         {
             while (!isEOF((token = nextToken(false))))
             {
+                // allow a cancelled batch parse to stop between top level elements
+                checkInterrupted();
+
                 if (!token.isSignificant())
                 {
                     addElement(document, token);
@@ -195,40 +202,36 @@ public final class Parser
 
     private void addDelayed(Node node)
     {
-        for (Token token : delayed)
+        for (int i = 0; i < delayed.size(); i++)
         {
-            node.addChild(token);
+            node.addChild(delayed.get(i));
         }
 
         delayed.clear();
     }
 
-    private void addElement(Node parent, Element element)
+    private void addDelayed(StatementBuilder builder)
     {
-        if (parent.getClass() == Statement.class)
+        for (int i = 0; i < delayed.size(); i++)
         {
-            Element first = parent.getSigChild(0);
-            Element second = parent.getSigChild(1);
-
-            if ((first instanceof LabelToken) && (second != null))
-            {
-                // we're a labeled statement
-                if (STMTS.containsKey(second.getContent()))
-                {
-                    ((Statement) parent).changeTo(STMTS.get(second.getContent()));
-                }
-            }
+            builder.addChild(delayed.get(i));
         }
 
-        if (element instanceof Statement)
-        {
-            element = ((Statement) element).convert();
-        }
-        else if (element instanceof Structure)
+        delayed.clear();
+    }
+
+    private void addDelayed(StructureBuilder builder)
+    {
+        for (int i = 0; i < delayed.size(); i++)
         {
-            element = ((Structure) element).convert();
+            builder.addChild(delayed.get(i));
         }
 
+        delayed.clear();
+    }
+
+    private void addElement(Node parent, Element element)
+    {
         // add any delayed tokens first
         addDelayed(parent);
 
@@ -236,51 +239,51 @@ public final class Parser
         parent.addChild(element);
     }
 
-    private Statement createStatement(Class<? extends Statement> clazz, Token token)
+    private void addElement(StatementBuilder builder, Element element)
     {
-        try
-        {
-            Statement stmt = clazz.newInstance();
-            stmt.addChild(token);
+        // add any delayed tokens first
+        addDelayed(builder);
 
-            return stmt;
-        }
-        catch (InstantiationException e)
-        {
-            // should never happen...
-            throw new RuntimeException(e);
-        }
-        catch (IllegalAccessException e)
-        {
-            // should never happen...
-            throw new RuntimeException(e);
-        }
+        // add the passed token
+        builder.addChild(element);
     }
 
-    private Structure createStructure(Class<? extends Structure> clazz, Token token)
+    private void addElement(StructureBuilder builder, Element element)
     {
-        try
-        {
-            Structure struct = clazz.newInstance();
-            struct.setStart(token);
+        // add any delayed tokens first
+        addDelayed(builder);
 
-            return struct;
-        }
-        catch (InstantiationException e)
-        {
-            // should never happen...
-            throw new RuntimeException(e);
-        }
-        catch (IllegalAccessException e)
+        // add the passed token
+        builder.addChild(element);
+    }
+
+    /*
+     * a batch parse that times out or is cancelled interrupts the parsing thread
+     */
+    private void checkInterrupted() throws InterruptedException
+    {
+        if (Thread.currentThread().isInterrupted())
         {
-            // should never happen...
-            throw new RuntimeException(e);
+            throw new InterruptedException();
         }
     }
 
+    private Statement createStatement(Class<? extends Statement> clazz, Token token)
+    {
+        Statement stmt = factory.create(clazz);
+        stmt.addChild(token);
+
+        return stmt;
+    }
+
+    private StructureBuilder createStructure(Class<? extends Structure> clazz, Token token)
+    {
+        return new StructureBuilder(clazz, token);
+    }
+
     private void delay(Token token)
     {
-        delayed.add(token);
+        delayed.addLast(token);
     }
 
     private boolean forContinues(Element last, Token token)
@@ -340,7 +343,7 @@ public final class Parser
 
         if (ElementUtils.isForWordToken(last) || ElementUtils.isForeachWordToken(last))
         {
-            if ((token instanceof WordToken) && (STMTS.get(token.getContent()) == VariableStatement.class))
+            if ((token instanceof WordToken) && (STMTS.get(token.getKeywordId()) == VariableStatement.class))
             {
                 return true;
             }
@@ -353,7 +356,7 @@ public final class Parser
             return false;
         }
 
-        if (STMTS.get(last.getContent()) == VariableStatement.class)
+        if (STMTS.get(keywordId(last)) == VariableStatement.class)
         {
             return startsWithDollar(token);
         }
@@ -371,7 +374,7 @@ public final class Parser
         throw new RuntimeException();
     }
 
-    private boolean ifContinues(Statement stmt, Element last, Token token)
+    private boolean ifContinues(StatementBuilder builder, Element last, Token token)
     {
         // only implicitly end on a block
         if (!(last instanceof BlockStructure))
@@ -383,7 +386,7 @@ public final class Parser
         }
 
         // if the token before the block is 'else', we're done
-        if (ElementUtils.isElseWordToken(stmt.getSigChild(-2)))
+        if (ElementUtils.isElseWordToken(builder.getPrevious()))
         {
             return false;
         }
@@ -397,12 +400,42 @@ public final class Parser
         return false;
     }
 
+    private boolean isA(Class<? extends Node> clazz, Class<? extends Node> type)
+    {
+        return type.isAssignableFrom(clazz);
+    }
+
+    /*
+     * scan ahead from the significant token after an open curly, anything after the 2nd token defaults to a block
+     */
+    private boolean isConstructor(int position) throws TokenizerException
+    {
+        Token next = peekToken(position);
+        if (isEOF(next))
+        {
+            return false;
+        }
+
+        // '{}' is an empty hash, '{;' is a block per perlref
+        if (next.getKeywordId() == KeywordId.CLOSE_CURLY)
+        {
+            return true;
+        }
+
+        if (next.getKeywordId() == KeywordId.SEMICOLON)
+        {
+            return false;
+        }
+
+        return (peekToken(position + 1).getKeywordId() == KeywordId.FAT_COMMA);
+    }
+
     private boolean isEOF(Token token)
     {
         return token.isEOF();
     }
 
-    private boolean isSubScript(Node parent, Element child)
+    private boolean isSubScript(StatementBuilder builder, Element child)
     {
         boolean subScript = false;
 
@@ -426,7 +459,7 @@ public final class Parser
         {
             // dereference - ${$hash_ref}{foo} or ${burfle}{foo}
             // hash slice  - @{$hash_ref}{'foo', 'bar'}
-            Element last = parent.getSigChild(-2);
+            Element last = builder.getPrevious();
             if ((last instanceof CastToken) && (startsWithDollar(last) || startsWithAt(last)))
             {
                 subScript = true;
@@ -436,6 +469,14 @@ public final class Parser
         return subScript;
     }
 
+    /*
+     * structures and statements are never keywords, only tokens carry an id
+     */
+    private KeywordId keywordId(Element element)
+    {
+        return (element instanceof Token) ? ((Token) element).getKeywordId() : KeywordId.NONE;
+    }
+
     //J--
     /*
      * a label can be any one of:
@@ -472,40 +513,118 @@ public final class Parser
 
     private Token nextToken(boolean delay) throws TokenizerException
     {
-        Token token = provider.nextToken();
+        Token token = tokens.nextToken();
 
         while (delay && !token.isSignificant())
         {
             delay(token);
-            token = provider.nextToken();
+            token = tokens.nextToken();
         }
 
         return token;
     }
 
-    private void parseOpenBrace(Node parent, Token token) throws TokenizerException
+    /*
+     * look ahead at a significant token w/o consuming anything, 0 is the one the next call to 'nextToken()' will return
+     */
+    private Token peekToken(int position) throws TokenizerException
+    {
+        for (int index = 0;; index++)
+        {
+            Token token = tokens.peek(index);
+
+            if (isEOF(token) || (token.isSignificant() && (position-- == 0)))
+            {
+                return token;
+            }
+        }
+    }
+
+    /*
+     * statements and structures nest inside each other, so rather than recursing once per level they are parsed using an explicit stack.
+     * the innermost one is the one being parsed, once it is complete it is added to the one it is nested in.
+     *
+     * a statement only ever directly contains structures and a structure only ever directly contains statements, so the two kinds are
+     * kept on their own stacks and the innermost is a structure whenever both stacks are the same size.
+     */
+    private void parseNested(Statement stmt) throws TokenizerException, InterruptedException
+    {
+        ArrayDeque<StatementBuilder> statements = new ArrayDeque<>();
+        ArrayDeque<StructureBuilder> structures = new ArrayDeque<>();
+
+        statements.push(new StatementBuilder(stmt));
+
+        while (!statements.isEmpty())
+        {
+            // a single top level statement can nest arbitrarily deep, so it has to be able to stop part way through as well
+            checkInterrupted();
+
+            if (structures.size() == statements.size())
+            {
+                StructureBuilder struct = structures.peek();
+                Statement child = parseStructure(struct);
+
+                if (child != null)
+                {
+                    statements.push(new StatementBuilder(child));
+                    continue;
+                }
+
+                structures.pop();
+                addElement(statements.peek(), struct.build(factory));
+            }
+            else
+            {
+                StatementBuilder builder = statements.peek();
+                StructureBuilder child = parseStatement(builder);
+
+                if (child != null)
+                {
+                    structures.push(child);
+                    continue;
+                }
+
+                statements.pop();
+
+                if (!structures.isEmpty())
+                {
+                    addElement(structures.peek(), builder.getStatement());
+                }
+            }
+        }
+    }
+
+    private Statement parseOpenBrace(Token token) throws TokenizerException
     {
-        // rollback into the token, create a new statement, and parse it...
+        // rollback into the token and create a new statement to parse it
         rollback(token);
 
-        Statement stmt = new Statement();
+        // a statement starting w/ a block is compound, ie: a bare block - the token is now at position 0
+        if (ElementUtils.isOpenCurlyToken(token) && !isConstructor(1))
+        {
+            return factory.create(CompoundStatement.class);
+        }
 
-        parseStatement(stmt);
-        addElement(parent, stmt);
+        return factory.create(Statement.class);
     }
 
-    private void parseStatement(Statement stmt) throws TokenizerException
+    /**
+     * @return structure that has to be parsed before the statement can continue, or <code>null</code> if the statement is complete
+     */
+    private StructureBuilder parseStatement(StatementBuilder builder) throws TokenizerException
     {
+        Statement stmt = builder.getStatement();
+
         if (stmt instanceof EndStatement)
         {
             Token token = null;
             while (!isEOF((token = nextToken(false))))
             {
-                stmt.addChild(token);
+                builder.addChild(token);
             }
 
             rollback(null);
-            return;
+            return null;
         }
 
         Token token = null;
@@ -514,37 +633,39 @@ public final class Parser
             if (ElementUtils.isCloseBraceToken(token) || (token instanceof SeparatorToken))
             {
                 rollback(token);
-                return;
+                return null;
             }
 
-            if (!stmt.isNormal() && !statementContinues(stmt, token))
+            if (!stmt.isNormal() && !statementContinues(builder, token))
             {
                 rollback(token);
-                return;
+                return null;
             }
 
             if (!(token instanceof StructureToken))
             {
-                addElement(stmt, token);
+                addElement(builder, token);
                 continue;
             }
 
             if (ElementUtils.isSemiColonToken(token))
             {
-                addElement(stmt, token);
-                return;
+                addElement(builder, token);
+                return null;
             }
 
-            Structure struct = resolveStructure(stmt, token);
-            parseStructure(struct);
-
-            addElement(stmt, struct);
+            return resolveStructure(builder, token);
         }
 
         rollback(token);
+
+        return null;
     }
 
-    private void parseStructure(Structure struct) throws TokenizerException
+    /**
+     * @return statement that has to be parsed before the structure can continue, or <code>null</code> if the structure is complete
+     */
+    private Statement parseStructure(StructureBuilder struct) throws TokenizerException
     {
         Token token = null;
         while (!isEOF((token = nextToken())))
@@ -558,31 +679,22 @@ public final class Parser
                  */
                 addDelayed(struct);
 
-                Statement stmt = resolveStatement(struct, token);
-
-                parseStatement(stmt);
-                addElement(struct, stmt);
+                return resolveStatement(struct.getType(), token);
             }
 
             // opening of another structure directly inside us...
             else if (ElementUtils.isOpenBraceToken(token))
             {
-                parseOpenBrace(struct, token);
+                return parseOpenBrace(token);
             }
 
             // close of a structure - could be an error...
             else if (ElementUtils.isCloseBraceToken(token))
             {
-                if (struct.isStartOpposite(token.getContent()))
+                if (struct.isClosedBy((StructureToken) token))
                 {
                     addDelayed(struct);
                     struct.setFinish(token);
-
-                    // are we really for my $i (@foo)
-                    if ((struct instanceof ForLoopStructure) && (2 > struct.find(Statement.class, true).size()))
-                    {
-                        struct.changeTo(ListStructure.class);
-                    }
                 }
                 else
                 {
@@ -596,7 +708,7 @@ public final class Parser
                     rollback(token);
                 }
 
-                return;
+                return null;
             }
             else
             {
@@ -606,9 +718,11 @@ public final class Parser
 
         // eof, add any insignificant trailing tokens
         addDelayed(struct);
+
+        return null;
     }
 
-    private void processToken(Document document, Token token) throws TokenizerException
+    private void processToken(Document document, Token token) throws TokenizerException, InterruptedException
     {
         if (ElementUtils.isSemiColonToken(token))
         {
@@ -617,17 +731,20 @@ public final class Parser
         }
         else if (!(token instanceof StructureToken))
         {
-            Statement stmt = resolveStatement(document, token);
+            Statement stmt = resolveStatement(Document.class, token);
 
             // move the lexing down into the statement
             addDelayed(document);
 
-            parseStatement(stmt);
+            parseNested(stmt);
             addElement(document, stmt);
         }
         else if (ElementUtils.isOpenBraceToken(token))
         {
-            parseOpenBrace(document, token);
+            Statement stmt = parseOpenBrace(token);
+
+            parseNested(stmt);
+            addElement(document, stmt);
         }
         else if (ElementUtils.isCloseBraceToken(token))
         {
@@ -640,10 +757,10 @@ public final class Parser
         }
     }
 
-    private Class<? extends Structure> resolveOpenBracket(Node parent, Token token)
+    private Class<? extends Structure> resolveOpenBracket(StatementBuilder builder, Token token)
     {
         Class<? extends Structure> clazz = null;
-        Element element = parent.getSigChild(-1);
+        Element element = builder.getLast();
 
         // TODO: there are additional cases to be caught...
 
@@ -672,23 +789,26 @@ public final class Parser
         return clazz;
     }
 
-    private Class<? extends Structure> resolveOpenCurly(Node parent, Token token) throws TokenizerException
+    private Class<? extends Structure> resolveOpenCurly(StatementBuilder builder, Token token) throws TokenizerException
     {
-        Element element = parent.getSigChild(-1);
+        Statement parent = builder.getStatement();
+        Element element = builder.getLast();
 
         if (element != null)
         {
-            if (isSubScript(parent, element))
+            if (isSubScript(builder, element))
             {
                 return SubscriptStructure.class;
             }
 
-            if (BLOCKS.contains(element.getContent()))
+            KeywordId id = keywordId(element);
+
+            if (BLOCKS.contains(id))
             {
                 return BlockStructure.class;
             }
 
-            if (CTORS.contains(element.getContent()))
+            if (CTORS.contains(id))
             {
                 return ConstructorStructure.class;
             }
@@ -703,8 +823,8 @@ public final class Parser
         // are we 2nd or 3rd argument of 'use'
         if (parent instanceof IncludeStatement)
         {
-            int count = parent.getSigChidrenCount();
-            if (((count == 2) || (count == 3)) && (parent.getSigChild(2) instanceof NumberToken))
+            // w/ 2 children there is no 3rd to check
+            if ((builder.getSigCount() == 3) && (builder.getLast() instanceof NumberToken))
             {
                 // this is something like use constant { ... };
                 return ConstructorStructure.class;
@@ -721,55 +841,28 @@ public final class Parser
         }
 
         // special case: param of a core function, ie: map({ $_ => 1 } @foo)
-        if ((parent instanceof Statement) && parent.parentIs(ListStructure.class))
+        if (parent.parentIs(ListStructure.class))
         {
-            String content = parent.getParent().getParent().getSigChild(-2).getContent();
-            if ("map".equals(content) || "grep".equals(content) || "sort".equals(content))
+            KeywordId id = keywordId(parent.getParent().getParent().getSigChild(-2));
+            if ((id == KeywordId.MAP) || (id == KeywordId.GREP) || (id == KeywordId.SORT))
             {
                 return BlockStructure.class;
             }
         }
 
-        // scan ahead...
-        int position = 0;
-
-        Token next = null;
-        while (!isEOF((next = nextToken())))
-        {
-            String content = next.getContent();
-
-            // if >= 3, default to block, otherwise block per perlref
-            if ((++position >= 3) || ((position == 1) && ";".equals(content)))
-            {
-
-                // block, per perlref
-                rollback(next);
-                break;
-            }
+        boolean constructor = isConstructor(0);
 
-            if (((position == 1) && "}".equals(content)) || ((position == 2) && "=>".equals(content)))
-            {
-                rollback(next);
-                return ConstructorStructure.class;
-            }
-
-            delay(next);
-        }
-
-        // trigger the delayed tokens to be added back to the buffer
+        // nothing was consumed, but any tokens delayed before the brace are still added back to the buffer
         rollback(null);
 
-        if (parent instanceof Statement)
-        {
-            ((Statement) parent).changeTo(CompoundStatement.class);
-        }
-
-        return BlockStructure.class;
+        // a block here starts the statement, which was already created as a compound statement
+        return constructor ? ConstructorStructure.class : BlockStructure.class;
     }
 
-    private Class<? extends Structure> resolveOpenParen(Node parent, Token token)
+    private Class<? extends Structure> resolveOpenParen(StatementBuilder builder, Token token)
     {
-        Element element = parent.getSigChild(-1);
+        Statement parent = builder.getStatement();
+        Element element = builder.getLast();
 
         if (ElementUtils.isConditionalWordToken(element))
         {
@@ -784,7 +877,7 @@ public final class Parser
         // if we're paret of a for/foreach statement, we're a ForLoop
         if (parent instanceof CompoundStatement)
         {
-            CompoundStatement.Type type = ((CompoundStatement) parent).getType();
+            CompoundStatement.Type type = builder.getType();
             if ((type == CompoundStatement.Type.FOR) || (type == CompoundStatement.Type.FOREACH))
             {
                 return ForLoopStructure.class;
@@ -811,26 +904,28 @@ public final class Parser
         return ListStructure.class;
     }
 
-    private Statement resolveStatement(Node parent, Token token) throws TokenizerException
+    /*
+     * the parent is passed as a class as structures are only created once they are complete
+     */
+    private Statement resolveStatement(Class<? extends Node> parent, Token token) throws TokenizerException
     {
         // this might be 'parent' =>
-        if (((parent instanceof ListStructure) || (parent instanceof ConstructorStructure)) && (token instanceof WordToken))
+        if ((isA(parent, ListStructure.class) || isA(parent, ConstructorStructure.class)) && (token instanceof WordToken))
         {
-            Token next = nextToken();
+            Token next = peekToken(0);
+            rollback(null);
+
             if (ElementUtils.isEqualArrowOperatorToken(next))
             {
-                rollback(next);
                 return createStatement(ExpressionStatement.class, token);
             }
-
-            rollback(next);
         }
 
         // try and grab the statement type from the map - ok if we get 'null'
-        Class<? extends Statement> clazz = Parser.STMTS.get(token.getContent());
+        Class<? extends Statement> clazz = Parser.STMTS.get(token.getKeywordId());
 
         // handle barewords for subscripts
-        if (parent instanceof SubscriptStructure)
+        if (isA(parent, SubscriptStructure.class))
         {
             clazz = resolveSubScript(clazz, token);
         }
@@ -849,8 +944,8 @@ public final class Parser
         {
             clazz = resolveUse(token);
         }
-        else if ((parent instanceof WhenStructure) || (parent instanceof GivenStructure) || (parent instanceof ConditionStructure) ||
-                (parent instanceof ListStructure))
+        else if (isA(parent, WhenStructure.class) || isA(parent, GivenStructure.class) || isA(parent, ConditionStructure.class) ||
+                isA(parent, ListStructure.class))
         {
             clazz = ExpressionStatement.class;
         }
@@ -867,21 +962,21 @@ public final class Parser
         return createStatement(clazz, token);
     }
 
-    private Structure resolveStructure(Statement parent, Token token) throws TokenizerException
+    private StructureBuilder resolveStructure(StatementBuilder builder, Token token) throws TokenizerException
     {
         Class<? extends Structure> clazz = null;
 
         if (ElementUtils.isOpenCurlyToken(token))
         {
-            clazz = resolveOpenCurly(parent, token);
+            clazz = resolveOpenCurly(builder, token);
         }
         else if (ElementUtils.isOpenSquareToken(token))
         {
-            clazz = resolveOpenBracket(parent, token);
+            clazz = resolveOpenBracket(builder, token);
         }
         else if (ElementUtils.isOpenParenToken(token))
         {
-            clazz = resolveOpenParen(parent, token);
+            clazz = resolveOpenParen(builder, token);
         }
         else
         {
@@ -896,7 +991,7 @@ public final class Parser
     {
         Class<? extends Statement> clazz = null;
 
-        Token next = nextToken();
+        Token next = peekToken(0);
         if (!isEOF(next))
         {
             // scheduled statements that are defined as subroutines are still scheduled
@@ -920,7 +1015,7 @@ public final class Parser
             clazz = SubStatement.class;
         }
 
-        rollback(next);
+        rollback(null);
 
         return clazz;
     }
@@ -954,7 +1049,7 @@ public final class Parser
          * more complex case, we might be 'my' or 'our' followed by a symbol. if the next token is a '}', then we're sothing like $h{foo}
          */
         Class<? extends Statement> clazz = null;
-        Token next = nextToken();
+        Token next = peekToken(0);
 
         if (!isEOF(next))
         {
@@ -973,7 +1068,7 @@ public final class Parser
             clazz = ExpressionStatement.class;
         }
 
-        rollback(next);
+        rollback(null);
 
         return clazz;
     }
@@ -982,7 +1077,7 @@ public final class Parser
     {
         Class<? extends Statement> clazz = null;
 
-        Token next = nextToken();
+        Token next = peekToken(0);
         if (!isEOF(next))
         {
             if (ElementUtils.isV6WordToken(next))
@@ -1000,7 +1095,7 @@ public final class Parser
             clazz = IncludeStatement.class;
         }
 
-        rollback(next);
+        rollback(null);
         return clazz;
     }
 
@@ -1008,13 +1103,12 @@ public final class Parser
     {
         if (token != null)
         {
-            provider.rollback(token);
+            tokens.rollback(token);
         }
 
         while (!delayed.isEmpty())
         {
-            Token delay = delayed.pop();
-            provider.rollback(delay);
+            tokens.rollback(delayed.removeLast());
         }
     }
 
@@ -1028,10 +1122,18 @@ public final class Parser
         return element.getContent().startsWith("$");
     }
 
-    private boolean statementContinues(Statement stmt, Token token)
+    private boolean statementContinues(StatementBuilder builder, Token token)
     {
+        Statement stmt = builder.getStatement();
+
+        // nothing to continue from yet, ie: the opening curly of a bare block
+        if (builder.getSigCount() == 0)
+        {
+            return true;
+        }
+
         // handle simple block case: { print 1; }
-        if ((stmt.getSigChidrenCount() == 1) && (stmt.getSigChild(0) instanceof BlockStructure))
+        if ((builder.getSigCount() == 1) && (builder.getFirst() instanceof BlockStructure))
         {
             return false;
         }
@@ -1042,7 +1144,7 @@ public final class Parser
             return true;
         }
 
-        Element last = stmt.getLastElement();
+        Element last = builder.getLastElement();
 
         // scheduled/sub/given/when follow same rule and can be handled first...
         if (!(stmt instanceof CompoundStatement))
@@ -1060,10 +1162,10 @@ public final class Parser
         // if (EXPR) BLOCK else BLOCK
         // if (EXPR) BLOCK elsif (EXPR) BLOCK ... else BLOCK
         //
-        Statement.Type type = stmt.getType();
+        Statement.Type type = builder.getType();
         if (type == Statement.Type.IF)
         {
-            return ifContinues(stmt, last, token);
+            return ifContinues(builder, last, token);
         }
 
         // labels...
@@ -1117,7 +1219,7 @@ public final class Parser
             // LABEL foreach VAR (LIST) BLOCK continue BLOCK
             // LABEL BLOCK continue BLOCK
             //
-            if (ElementUtils.isContinueWordToken(stmt.getSigChild(-2)))
+            if (ElementUtils.isContinueWordToken(builder.getPrevious()))
             {
                 return false;
             }
@@ -0,0 +1,142 @@
+package org.scriptkitty.ppi4j.parser;
+
+import org.scriptkitty.ppi4j.Element;
+import org.scriptkitty.ppi4j.Statement;
+
+
+/**
+ * tracks the children of a statement while the parser builds it.
+ *
+ * <p>the parser only ever looks at the start and the end of the statement it is building, keeping those elements as they are added means
+ * its decisions don't depend on the number of children the statement already has.</p>
+ */
+final class StatementBuilder
+{
+    //~ Instance fields
+
+    private final Statement statement;
+
+    private int count;
+
+    private Element first;
+    private Element second;
+    private Element last;
+    private Element previous;
+
+    private Element lastElement;
+
+    private Statement.Type type;
+    private int typeCount;
+
+    //~ Constructors
+
+    StatementBuilder(Statement statement)
+    {
+        this.statement = statement;
+
+        // a new statement only holds the token that started it
+        for (Element child : statement.getChildren())
+        {
+            track(child);
+        }
+    }
+
+    //~ Methods
+
+    void addChild(Element child)
+    {
+        statement.addChild(child);
+        track(child);
+    }
+
+    /**
+     * @return first significant child, or <code>null</code>
+     */
+    Element getFirst()
+    {
+        return first;
+    }
+
+    /**
+     * @return last significant child, or <code>null</code>
+     */
+    Element getLast()
+    {
+        return last;
+    }
+
+    /**
+     * @return last child, significant or not, or <code>null</code>
+     */
+    Element getLastElement()
+    {
+        return lastElement;
+    }
+
+    /**
+     * @return significant child before the last one, or <code>null</code>
+     */
+    Element getPrevious()
+    {
+        return previous;
+    }
+
+    /**
+     * @return second significant child, or <code>null</code>
+     */
+    Element getSecond()
+    {
+        return second;
+    }
+
+    int getSigCount()
+    {
+        return count;
+    }
+
+    Statement getStatement()
+    {
+        return statement;
+    }
+
+    /**
+     * get the type of the statement, only valid for compound statements.
+     *
+     * <p>a compound statement's type is decided by its first 3 significant children, so once those have been added it is looked up
+     * once.</p>
+     */
+    Statement.Type getType()
+    {
+        if ((type == null) || (typeCount < 3))
+        {
+            type = statement.getType();
+            typeCount = count;
+        }
+
+        return type;
+    }
+
+    private void track(Element child)
+    {
+        lastElement = child;
+
+        if (!child.isSignificant())
+        {
+            return;
+        }
+
+        if (count == 0)
+        {
+            first = child;
+        }
+        else if (count == 1)
+        {
+            second = child;
+        }
+
+        previous = last;
+        last = child;
+
+        count++;
+    }
+}
@@ -0,0 +1,138 @@
+package org.scriptkitty.ppi4j.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.scriptkitty.ppi4j.Element;
+import org.scriptkitty.ppi4j.ElementFactory;
+import org.scriptkitty.ppi4j.Node;
+import org.scriptkitty.ppi4j.Statement;
+import org.scriptkitty.ppi4j.Structure;
+import org.scriptkitty.ppi4j.Token;
+import org.scriptkitty.ppi4j.structure.ForLoopStructure;
+import org.scriptkitty.ppi4j.structure.ListStructure;
+import org.scriptkitty.ppi4j.token.StructureToken;
+
+
+/**
+ * collects the children of a structure while the parser builds it.
+ *
+ * <p>a structure's kind is not always known until it is closed, ie: <code>for (@foo)</code> starts out as a for loop but turns out to be
+ * a list. the node is only created once the structure is complete, so it is created as the right kind and its children are only ever
+ * added to one node.</p>
+ */
+final class StructureBuilder
+{
+    //~ Instance fields
+
+    private final Class<? extends Structure> type;
+
+    private final Token start;
+    private Token finish;
+
+    private final List<Element> children = new ArrayList<>();
+
+    //~ Constructors
+
+    StructureBuilder(Class<? extends Structure> type, Token start)
+    {
+        this.type = type;
+        this.start = start;
+    }
+
+    //~ Methods
+
+    void addChild(Element child)
+    {
+        children.add(child);
+    }
+
+    /**
+     * create the structure node.
+     *
+     * <p>a for loop w/ fewer than two statements is really a list, ie: <code>for my $i (@foo)</code></p>
+     *
+     * @param  factory creates the node
+     *
+     * @return structure
+     */
+    Structure build(ElementFactory factory)
+    {
+        Class<? extends Structure> clazz = type;
+
+        if ((finish != null) && (type == ForLoopStructure.class) && (countStatements() < 2))
+        {
+            clazz = ListStructure.class;
+        }
+
+        Structure struct = factory.create(clazz);
+        struct.setStart(start);
+
+        for (Element child : children)
+        {
+            struct.addChild(child);
+        }
+
+        if (finish != null)
+        {
+            struct.setFinish(finish);
+        }
+
+        return struct;
+    }
+
+    /**
+     * get the kind of structure being parsed
+     *
+     * @return structure class
+     */
+    Class<? extends Structure> getType()
+    {
+        return type;
+    }
+
+    /**
+     * does the token close the structure?
+     *
+     * @param  token close brace
+     *
+     * @return <code>true</code> if the token matches the start brace, <code>false</code> otherwise
+     *
+     * @see    Structure#isStartOpposite(String)
+     */
+    boolean isClosedBy(StructureToken token)
+    {
+        StructureToken open = (StructureToken) start;
+
+        return (open.isOpenCurly() && token.isCloseCurly()) || (open.isOpenSquare() && token.isCloseSquare()) ||
+            (open.isOpenParen() && token.isCloseParen());
+    }
+
+    void setFinish(Token token)
+    {
+        this.finish = token;
+    }
+
+    /*
+     * the same count 'find(Statement.class, true)' would return for the built structure
+     */
+    private int countStatements()
+    {
+        int count = 0;
+
+        for (Element child : children)
+        {
+            if ((child.getClass() == Statement.class) || (child.getClass().getSuperclass() == Statement.class))
+            {
+                count++;
+            }
+
+            if (child instanceof Node)
+            {
+                count += ((Node) child).find(Statement.class, true).size();
+            }
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,130 @@
+package org.scriptkitty.ppi4j.parser;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.scriptkitty.ppi4j.Token;
+
+
+/**
+ * growable ring of tokens that can be added to and removed from either end, and read at any position.
+ *
+ * <p>used for the tokens the parser has read ahead or put back, it is not synchronized as a parser only ever runs on one thread.</p>
+ */
+final class TokenBuffer
+{
+    //~ Instance fields
+
+    private int head;
+
+    private int size;
+
+    private Token[] ring = new Token[16];
+
+    //~ Methods
+
+    void addFirst(Token token)
+    {
+        ensureCapacity();
+
+        head = (head - 1) & (ring.length - 1);
+        ring[head] = token;
+        size++;
+    }
+
+    void addLast(Token token)
+    {
+        ensureCapacity();
+
+        ring[(head + size) & (ring.length - 1)] = token;
+        size++;
+    }
+
+    void clear()
+    {
+        Arrays.fill(ring, null);
+
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * @param  index <code>0</code> for the first token
+     *
+     * @return token at the index
+     *
+     * @throws IndexOutOfBoundsException if there is no token at the index
+     */
+    Token get(int index)
+    {
+        if ((index < 0) || (index >= size))
+        {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+
+        return ring[(head + index) & (ring.length - 1)];
+    }
+
+    boolean isEmpty()
+    {
+        return (size == 0);
+    }
+
+    Token removeFirst()
+    {
+        if (size == 0)
+        {
+            throw new NoSuchElementException();
+        }
+
+        Token token = ring[head];
+
+        ring[head] = null;
+        head = (head + 1) & (ring.length - 1);
+        size--;
+
+        return token;
+    }
+
+    Token removeLast()
+    {
+        if (size == 0)
+        {
+            throw new NoSuchElementException();
+        }
+
+        int index = (head + size - 1) & (ring.length - 1);
+        Token token = ring[index];
+
+        ring[index] = null;
+        size--;
+
+        return token;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    /*
+     * the capacity is always a power of 2 so positions can wrap w/ a mask
+     */
+    private void ensureCapacity()
+    {
+        if (size < ring.length)
+        {
+            return;
+        }
+
+        Token[] tokens = new Token[ring.length * 2];
+
+        for (int i = 0; i < size; i++)
+        {
+            tokens[i] = get(i);
+        }
+
+        ring = tokens;
+        head = 0;
+    }
+}
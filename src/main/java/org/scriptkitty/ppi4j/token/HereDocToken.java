@@ -1,5 +1,6 @@
 package org.scriptkitty.ppi4j.token;
 
+import java.util.AbstractList;
 import java.util.Collections;
 import java.util.List;
 
@@ -26,7 +27,13 @@ public final class HereDocToken extends Token
 
     private int tOffset = 0;
 
-    private List<String> heredoc;
+    private int lineCount;
+
+    /* the body is a single span of the document source, it is only split into lines on request */
+    private CharSequence heredoc;
+
+    /* created on first request, a finished document may be read from several threads so the view is immutable and published safely */
+    private volatile List<String> lines;
 
     private Mode mode;
 
@@ -48,7 +55,7 @@ public final class HereDocToken extends Token
     {
         if (tLine != null)
         {
-            return tOffset + tLine.length();
+            return getTerminatorOffset() + tLine.length();
         }
 
         if (hdOffset > 0)
@@ -71,7 +78,26 @@ public final class HereDocToken extends Token
             return Collections.emptyList();
         }
 
-        return heredoc;
+        List<String> view = lines;
+
+        if (view == null)
+        {
+            // two threads may both create the view, they are equal and either one may be kept
+            view = new Lines(heredoc, lineCount);
+            lines = view;
+        }
+
+        return view;
+    }
+
+    /**
+     * get the contents of the heredoc as a single sequence, including newline characters
+     *
+     * @return heredoc contents
+     */
+    public CharSequence getHereDocContent()
+    {
+        return (heredoc == null) ? "" : heredoc;
     }
 
     /**
@@ -81,14 +107,7 @@ public final class HereDocToken extends Token
      */
     public int getHereDocLength()
     {
-        int length = 0;
-
-        for (String line : getHereDoc())
-        {
-            length += line.length();
-        }
-
-        return length;
+        return (heredoc == null) ? 0 : heredoc.length();
     }
 
     /**
@@ -108,7 +127,7 @@ public final class HereDocToken extends Token
      */
     public int getLineCount()
     {
-        return getHereDoc().size();
+        return lineCount;
     }
 
     /**
@@ -169,13 +188,16 @@ public final class HereDocToken extends Token
      *
      * <p>note: this method is only intended to be used by the tokenizer.</p>
      *
-     * @param heredoc heredoc
+     * @param heredoc heredoc, including the newline characters of each line
+     * @param lines   number of lines in the heredoc
      * @param offset  staring offset
      */
-    public void setHereDocAndOffset(List<String> heredoc, int offset)
+    public void setHereDocAndOffset(CharSequence heredoc, int lines, int offset)
     {
         this.heredoc = heredoc;
+        this.lineCount = lines;
         this.hdOffset = offset;
+        this.lines = null;
     }
 
     /**
@@ -225,16 +247,84 @@ public final class HereDocToken extends Token
 
         buffer.append(" [ '");
 
-        for (String text : getHereDoc())
+        CharSequence text = getHereDocContent();
+        for (int i = 0; i < text.length(); i++)
         {
-            text = text.replaceAll("\\r", "\\\\r");
-            text = text.replaceAll("\\n", "\\\\n");
-
-            buffer.append(text);
+            char c = text.charAt(i);
+
+            if (c == '\r')
+            {
+                buffer.append("\\r");
+            }
+            else if (c == '\n')
+            {
+                buffer.append("\\n");
+            }
+            else
+            {
+                buffer.append(c);
+            }
         }
 
         buffer.append("' ]");
 
         return buffer.toString();
     }
+
+    //~ Inner Classes
+
+    /**
+     * immutable view of the heredoc lines, the line boundaries are found when the view is created
+     */
+    private static final class Lines extends AbstractList<String>
+    {
+        private final int size;
+
+        private final int[] starts;
+
+        private final CharSequence heredoc;
+
+        Lines(CharSequence heredoc, int size)
+        {
+            this.heredoc = heredoc;
+            this.size = size;
+            this.starts = split();
+        }
+
+        @Override public String get(int index)
+        {
+            if ((index < 0) || (index >= size))
+            {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+            }
+
+            return heredoc.subSequence(starts[index], starts[index + 1]).toString();
+        }
+
+        @Override public int size()
+        {
+            return size;
+        }
+
+        private int[] split()
+        {
+            int[] indexes = new int[size + 1];
+            int line = 1;
+
+            for (int i = 0; (i < heredoc.length()) && (line < size); i++)
+            {
+                char c = heredoc.charAt(i);
+
+                // lines end w/ '\n', '\r\n' or a lone '\r'
+                if ((c == '\n') || ((c == '\r') && (((i + 1) == heredoc.length()) || (heredoc.charAt(i + 1) != '\n'))))
+                {
+                    indexes[line++] = i + 1;
+                }
+            }
+
+            indexes[size] = heredoc.length();
+
+            return indexes;
+        }
+    }
 }
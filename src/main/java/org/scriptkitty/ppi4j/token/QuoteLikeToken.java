@@ -12,7 +12,7 @@ public abstract class QuoteLikeToken extends Token implements SectionedToken
 {
     //~ Instance fields
 
-    private SectionedToken.Contents contents = new SectionedToken.Contents();
+    private final SectionedToken.Contents contents = new SectionedToken.Contents(this);
 
     //~ Methods
 
@@ -72,6 +72,14 @@ public abstract class QuoteLikeToken extends Token implements SectionedToken
         return getStartOffset() + getStringStartIndex();
     }
 
+    /*
+     * @see org.scriptkitty.ppi4j.token.SectionedToken#setSectionBounds(int[])
+     */
+    @Override public void setSectionBounds(int[] bounds)
+    {
+        contents.setSectionBounds(bounds);
+    }
+
     protected final SectionedToken.Contents getContents()
     {
         return contents;
@@ -16,7 +16,7 @@ public abstract class RegExpToken extends Token implements SectionedToken
 
     // TODO: add methods to get delimiters
 
-    private SectionedToken.Contents contents = new SectionedToken.Contents();
+    private final SectionedToken.Contents contents = new SectionedToken.Contents(this);
 
     //~ Methods
 
@@ -113,6 +113,14 @@ public abstract class RegExpToken extends Token implements SectionedToken
         return isComplete(1);
     }
 
+    /*
+     * @see org.scriptkitty.ppi4j.token.SectionedToken#setSectionBounds(int[])
+     */
+    @Override public void setSectionBounds(int[] bounds)
+    {
+        contents.setSectionBounds(bounds);
+    }
+
     /**
      * does the regular expression represented by this token support substitutions?
      *
@@ -0,0 +1,71 @@
+package org.scriptkitty.ppi4j.token;
+
+import java.util.List;
+
+import org.scriptkitty.ppi4j.token.SectionedToken.Section;
+
+
+/**
+ * creates the sections and modifiers of a token from the bounds recorded by the tokenizer.
+ *
+ * @see SectionedToken#setSectionBounds(int[])
+ */
+final class SectionBounds
+{
+    //~ Static fields/initializers
+
+    /** number of ints that describe a section */
+    private static final int SECTION = 5;
+
+    //~ Constructors
+
+    private SectionBounds()
+    {
+        // static methods only
+    }
+
+    //~ Methods
+
+    /**
+     * decode the sections and modifiers of a token.
+     *
+     * @param bounds bounds recorded by the tokenizer
+     * @param content token content
+     * @param sections receives the sections
+     * @param modifiers receives the modifiers
+     */
+    static void decode(int[] bounds, String content, List<Section> sections, List<String> modifiers)
+    {
+        for (int i = bounds[0]; i < bounds[1]; i++)
+        {
+            modifiers.add(String.valueOf(content.charAt(i)));
+        }
+
+        for (int i = 2; i < bounds.length; i += SECTION)
+        {
+            Section section = new Section();
+
+            section.position = bounds[i];
+            section.size = bounds[i + 1];
+            section.complete = (bounds[i + 2] == 1);
+            section.type = getType((char) bounds[i + 3], (char) bounds[i + 4]);
+
+            sections.add(section);
+        }
+    }
+
+    /*
+     * the type is the separator repeated, ie: '//' or '{}{}'
+     */
+    private static String getType(char open, char close)
+    {
+        if (open == 0)
+        {
+            return "";
+        }
+
+        String separator = (open == close) ? String.valueOf(open) : (String.valueOf(open) + close);
+
+        return separator + separator;
+    }
+}
@@ -3,6 +3,8 @@ package org.scriptkitty.ppi4j.token;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.scriptkitty.ppi4j.Token;
+
 
 public interface SectionedToken
 {
@@ -26,15 +28,41 @@ public interface SectionedToken
      */
     void addSection(Section section) throws UnsupportedOperationException;
 
+    /**
+     * set the bounds of the sections and modifiers found by the tokenizer.
+     *
+     * <p>the bounds start w/ the start and end index of the modifiers, followed by five ints per section: its position, size, <code>
+     * 1</code> if it is complete or <code>0</code> if not, and its open and close delimiter (<code>0</code> if it has none).</p>
+     *
+     * <p>note: this method is only intended to be used by the tokenizer.</p>
+     *
+     * @param bounds section and modifier bounds
+     */
+    void setSectionBounds(int[] bounds);
+
     //~ Inner Classes
 
+    /**
+     * the sections and modifiers of a token.
+     *
+     * <p>the tokenizer only records where the sections and modifiers are, the objects are created the first time they are needed.</p>
+     */
     public final class Contents implements SectionedToken
     {
         // TODO: provide methods to get delimiters
 
-        private List<String> modifiers = new ArrayList<>();
+        private int[] bounds;
+
+        private List<String> modifiers;
+
+        private List<Section> sections;
 
-        private List<Section> sections = new ArrayList<>();
+        private final Token token;
+
+        public Contents(Token token)
+        {
+            this.token = token;
+        }
 
         @Override public void addModifier(String modifier)
         {
@@ -48,21 +76,26 @@ public interface SectionedToken
              * has been specified twice, hence the decision here to use an array.
              */
             //J+
+            decode();
             modifiers.add(modifier);
         }
 
         @Override public void addSection(Section section)
         {
+            decode();
             sections.add(section);
         }
 
         public List<String> getModifiers()
         {
+            decode();
             return modifiers;
         }
 
         public Section getSection(int index)
         {
+            decode();
+
             try
             {
                 return sections.get(index);
@@ -75,8 +108,38 @@ public interface SectionedToken
 
         public boolean hasSections()
         {
+            decode();
             return !sections.isEmpty();
         }
+
+        @Override public synchronized void setSectionBounds(int[] bounds)
+        {
+            this.bounds = bounds;
+
+            // any sections already created are replaced
+            modifiers = null;
+            sections = null;
+        }
+
+        /*
+         * synchronized so a finished document can still be read from multiple threads
+         */
+        private synchronized void decode()
+        {
+            if (sections != null)
+            {
+                return;
+            }
+
+            modifiers = new ArrayList<>();
+            sections = new ArrayList<>();
+
+            if (bounds != null)
+            {
+                SectionBounds.decode(bounds, token.getContent(), sections, modifiers);
+                bounds = null;
+            }
+        }
     }
 
     public class Section
@@ -13,7 +13,7 @@ public class InterpolateQuoteToken extends QuoteToken implements SectionedToken
 {
     //~ Instance fields
 
-    private SectionedToken.Contents contents = new SectionedToken.Contents();
+    private final SectionedToken.Contents contents = new SectionedToken.Contents(this);
 
     //~ Methods
 
@@ -45,6 +45,14 @@ public class InterpolateQuoteToken extends QuoteToken implements SectionedToken
         throw new UnsupportedOperationException("getLiteral() not supported");
     }
 
+    /*
+     * @see org.scriptkitty.ppi4j.token.SectionedToken#setSectionBounds(int[])
+     */
+    @Override public void setSectionBounds(int[] bounds)
+    {
+        contents.setSectionBounds(bounds);
+    }
+
     /*
      * @see org.scriptkitty.ppi4j.token.QuoteToken#getStringEndIndex()
      */
@@ -13,7 +13,7 @@ public class LiteralQuoteToken extends QuoteToken implements SectionedToken
 {
     //~ Instance fields
 
-    private SectionedToken.Contents contents = new SectionedToken.Contents();
+    private final SectionedToken.Contents contents = new SectionedToken.Contents(this);
 
     //~ Methods
 
@@ -43,6 +43,14 @@ public class LiteralQuoteToken extends QuoteToken implements SectionedToken
         return getString().replace("\\'", "'").replace("\\\\", "\\");
     }
 
+    /*
+     * @see org.scriptkitty.ppi4j.token.SectionedToken#setSectionBounds(int[])
+     */
+    @Override public void setSectionBounds(int[] bounds)
+    {
+        contents.setSectionBounds(bounds);
+    }
+
     /*
      * @see org.scriptkitty.ppi4j.token.QuoteToken#getStringEndIndex()
      */
@@ -24,22 +24,34 @@ public final class QLWordsToken extends QuoteLikeToken
 
     private static final Pattern EMPTY = Pattern.compile("^\\s*$");
 
+    //~ Instance fields
+
+    /* split on first use, a benign race as every thread computes the same list */
+    private List<String> literal;
+
     //~ Methods
 
     /**
      * get the list of words contained constructed by operator
      *
-     * @return list of words
+     * @return unmodifiable list of words
      */
     public List<String> getLiteral()
     {
-        String str = getString();
-
-        if (EMPTY.matcher(str).matches())
+        if (literal == null)
         {
-            return Collections.emptyList();
+            String str = getString();
+
+            if (EMPTY.matcher(str).matches())
+            {
+                literal = Collections.emptyList();
+            }
+            else
+            {
+                literal = Collections.unmodifiableList(Arrays.asList(str.trim().split(" ")));
+            }
         }
 
-        return Arrays.asList(str.trim().split(" "));
+        return literal;
     }
 }
@@ -1,8 +1,5 @@
 package org.scriptkitty.ppi4j.tokenizer;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 import org.scriptkitty.ppi4j.exception.TokenizingException;
 
 
@@ -13,11 +10,6 @@ import org.scriptkitty.ppi4j.exception.TokenizingException;
  */
 final class ArrayIndexScanner extends TokenScanner
 {
-    //~ Static fields/initializers
-
-    /** array index pattern - <code>/^([\w:']+)/</code> */
-    private static final Pattern ARRAY_INDEX = Pattern.compile("^([\\w:']+)");
-
     //~ Methods
 
     /*
@@ -25,11 +17,13 @@ final class ArrayIndexScanner extends TokenScanner
      */
     @Override protected boolean tokenizerOnChar(Tokenizer tokenizer) throws TokenizingException
     {
-        Matcher matcher = ARRAY_INDEX.matcher(tokenizer.getRestOfCurrentLine());
+        // array index - /^([\w:']+)/
+        CharSequence rest = tokenizer.getRestOfCurrentLine();
+        int end = Matchers.symbolChars(rest);
 
-        if (matcher.find())
+        if (end != -1)
         {
-            tokenizer.appendToCurrentToken(matcher.group(1), true);
+            tokenizer.appendToCurrentToken(rest.subSequence(0, end), true);
         }
 
         tokenizer.finalizeToken();
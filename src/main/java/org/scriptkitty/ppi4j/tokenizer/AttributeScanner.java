@@ -1,7 +1,5 @@
 package org.scriptkitty.ppi4j.tokenizer;
 
-import java.util.regex.Pattern;
-
 import org.scriptkitty.ppi4j.exception.TokenizingException;
 
 
@@ -14,8 +12,23 @@ final class AttributeScanner extends TokenScanner
 {
     //~ Static fields/initializers
 
-    /** attribute end pattern - <code>/^((?:\.|[^()])*?[()])/</code> */
-    private static final Pattern ATTR_END = Pattern.compile("^((?:\\.|[^()])*?[()])");
+    /** attribute end - <code>/^((?:\.|[^()])*?[()])/</code> */
+    private static final Finder ATTR_END = new Finder()
+    {
+        @Override public int find(CharSequence rest)
+        {
+            for (int i = 0; i < rest.length(); i++)
+            {
+                char c = rest.charAt(i);
+                if ((c == '(') || (c == ')'))
+                {
+                    return i + 1;
+                }
+            }
+
+            return -1;
+        }
+    };
 
     //~ Methods
 
@@ -31,9 +44,9 @@ final class AttributeScanner extends TokenScanner
             StringBuffer buffer = new StringBuffer();
             eof = scanFor(tokenizer, buffer, ATTR_END, false, new Depth()
                 {
-                    @Override public int calculate(String matched)
+                    @Override public int calculate(CharSequence matched)
                     {
-                        return (matched.endsWith("(")) ? 1 : -1;
+                        return (matched.charAt(matched.length() - 1) == '(') ? 1 : -1;
                     }
 
                     @Override public int initial()
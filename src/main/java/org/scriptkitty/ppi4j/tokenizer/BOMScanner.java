@@ -13,9 +13,9 @@ final class BOMScanner extends TokenScanner
     //~ Methods
 
     /*
-     * @see org.scriptkitty.ppi4j.tokenizer.TokenScanner#tokenizerOnLineStart(org.scriptkitty.ppi4j.tokenizer.Tokenizer, java.lang.String)
+     * @see org.scriptkitty.ppi4j.tokenizer.TokenScanner#tokenizerOnLineStart(org.scriptkitty.ppi4j.tokenizer.Tokenizer, java.lang.CharSequence)
      */
-    @Override protected boolean tokenizerOnLineStart(Tokenizer tokenizer, String line)
+    @Override protected boolean tokenizerOnLineStart(Tokenizer tokenizer, CharSequence line)
     {
         // TODO: figure out what constitutes a BOM
 
@@ -1,7 +1,5 @@
 package org.scriptkitty.ppi4j.tokenizer;
 
-import java.util.regex.Pattern;
-
 import org.scriptkitty.ppi4j.Token;
 import org.scriptkitty.ppi4j.exception.TokenizingException;
 
@@ -13,11 +11,6 @@ import org.scriptkitty.ppi4j.exception.TokenizingException;
  */
 final class BinaryNumberScanner extends TokenScanner
 {
-    //~ Static fields/initializers
-
-    /** binary pattern - <code>/[\w\d]/</code> */
-    private static final Pattern BINARY = Pattern.compile("[\\w\\d]");
-
     //~ Methods
 
     /*
@@ -33,7 +26,7 @@ final class BinaryNumberScanner extends TokenScanner
             return false;
         }
 
-        if (BINARY.matcher(next).matches())
+        if (CharClass.is(next, CharClass.WORD))
         {
             // can only have 1's and 0's, but need to include all for proper tokenization
             if (!("0".equals(next) || "1".equals(next)))
@@ -0,0 +1,105 @@
+package org.scriptkitty.ppi4j.tokenizer;
+
+/**
+ * ascii character classes shared by the scanners.
+ *
+ * <p>the classes follow <code>java.util.regex</code> semantics (ie: <code>\d</code>, <code>\w</code> and <code>\s</code> only match ascii)
+ * so they can be used in place of single character patterns without changing behavior.</p>
+ */
+final class CharClass
+{
+    //~ Static fields/initializers
+
+    /** <code>[0-9]</code> */
+    static final int DIGIT = 0x01;
+
+    /** <code>[a-zA-Z]</code> */
+    static final int ALPHA = 0x02;
+
+    /** <code>_</code> */
+    static final int UNDERSCORE = 0x04;
+
+    /** <code>:</code> */
+    static final int COLON = 0x08;
+
+    /** <code>\s</code> - <code>[ \t\n\x0B\f\r]</code> */
+    static final int SPACE = 0x10;
+
+    /** <code>[\da-f]</code> */
+    static final int HEX = 0x20;
+
+    /** <code>[\$@%{]</code> */
+    static final int CAST = 0x40;
+
+    /** <code>\w</code> */
+    static final int WORD = DIGIT | ALPHA | UNDERSCORE;
+
+    private static final int[] TABLE = new int[128];
+
+    static
+    {
+        for (char c = '0'; c <= '9'; c++)
+        {
+            TABLE[c] |= DIGIT | HEX;
+        }
+
+        for (char c = 'a'; c <= 'z'; c++)
+        {
+            TABLE[c] |= ALPHA;
+            TABLE[Character.toUpperCase(c)] |= ALPHA;
+        }
+
+        for (char c = 'a'; c <= 'f'; c++)
+        {
+            TABLE[c] |= HEX;
+        }
+
+        for (char c : " \t\n\u000B\f\r".toCharArray())
+        {
+            TABLE[c] |= SPACE;
+        }
+
+        for (char c : "$@%{".toCharArray())
+        {
+            TABLE[c] |= CAST;
+        }
+
+        TABLE['_'] |= UNDERSCORE;
+        TABLE[':'] |= COLON;
+    }
+
+    //~ Constructors
+
+    private CharClass()
+    {
+        // static methods only
+    }
+
+    //~ Methods
+
+    /**
+     * is the character a member of any of the given classes?
+     *
+     * @param  c character
+     * @param  classes bitmask of classes
+     *
+     * @return <code>true</code> if the character matches, <code>false</code> otherwise
+     */
+    static boolean is(int c, int classes)
+    {
+        return ((c >= 0) && (c < 128) && ((TABLE[c] & classes) != 0));
+    }
+
+    /**
+     * is the string a single character that is a member of any of the given classes?
+     *
+     * @param  s string
+     * @param  classes bitmask of classes
+     *
+     * @return <code>true</code> if the string matches, <code>false</code> otherwise
+     */
+    static boolean is(String s, int classes)
+    {
+        return ((s.length() == 1) && is(s.charAt(0), classes));
+    }
+}
@@ -3,6 +3,7 @@ package org.scriptkitty.ppi4j.tokenizer;
 import org.scriptkitty.ppi4j.exception.TokenizingException;
 import org.scriptkitty.ppi4j.token.CommentToken;
 import org.scriptkitty.ppi4j.token.WhitespaceToken;
+import org.scriptkitty.ppi4j.util.CharArraySequence;
 
 
 /**
@@ -19,18 +20,22 @@ final class CommentScanner extends TokenScanner
      */
     @Override protected boolean tokenizerCommit(Tokenizer tokenizer)
     {
-        String rest = tokenizer.getRestOfCurrentLine();
+        CharArraySequence rest = tokenizer.getRestOfCurrentLine();
 
+        if (tokenizer.isSignificantOnly())
+        {
+            tokenizer.skip(rest.length());
+        }
         // the newline gets its own token
-        if (rest.endsWith("\n"))
+        else if (rest.endsWith('\n'))
         {
             // create the comment w/ the newline removed
-            tokenizer.createToken(CommentToken.class, rest.replace("\n", ""));
+            tokenizer.createToken(CommentToken.class, rest.subSequence(0, rest.length() - 1).toString());
             tokenizer.createToken(WhitespaceToken.class, "\n");
         }
         else
         {
-            tokenizer.createToken(CommentToken.class, rest);
+            tokenizer.createToken(CommentToken.class, rest.toString());
         }
 
         tokenizer.incLineColumn(tokenizer.getCurrentLineLength() - 1);
@@ -53,9 +58,9 @@ final class CommentScanner extends TokenScanner
     }
 
     /*
-     * @see org.scriptkitty.ppi4j.tokenizer.TokenScanner#tokenizerOnLineEnd(org.scriptkitty.ppi4j.tokenizer.Tokenizer, java.lang.String)
+     * @see org.scriptkitty.ppi4j.tokenizer.TokenScanner#tokenizerOnLineEnd(org.scriptkitty.ppi4j.tokenizer.Tokenizer, java.lang.CharSequence)
      */
-    @Override protected void tokenizerOnLineEnd(Tokenizer tokenizer, String line)
+    @Override protected void tokenizerOnLineEnd(Tokenizer tokenizer, CharSequence line)
     {
         tokenizer.finalizeToken();
     }
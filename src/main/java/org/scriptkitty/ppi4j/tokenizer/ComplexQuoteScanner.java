@@ -2,12 +2,9 @@ package org.scriptkitty.ppi4j.tokenizer;
 
 import java.util.HashSet;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.scriptkitty.ppi4j.Element.Attribute;
 import org.scriptkitty.ppi4j.exception.TokenizingException;
-import org.scriptkitty.ppi4j.token.SectionedToken;
 
 
 /**
@@ -27,15 +24,6 @@ final class ComplexQuoteScanner extends SimpleQuoteScanner
 {
     //~ Static fields/initializers
 
-    /** modifier pattern - <code>/[^\W\d_]/</code> */
-    private static final Pattern MODIFIER = Pattern.compile("[^\\W\\d_]");
-
-    /** whitespace pattern - <code>/^(\s*(?:\#.*)?)/s</code> */
-    private static final Pattern WHITESPACE = Pattern.compile("^(\\s*(?:\\\\#.*)?)", Pattern.DOTALL);
-
-    /** delimiter pattern - <code>m/ \A [^\w\s] \z /smx</code> */
-    private static final Pattern DELIMITER = Pattern.compile("\\A[^\\w\\s]\\z", Pattern.DOTALL | Pattern.MULTILINE);
-
     private static final ComplexQuoteScanner self = new ComplexQuoteScanner();
 
     /** set of 'complex' operators: <code>q qq qx qw qr m s tr y / &lt; ?</code> */
@@ -115,15 +103,14 @@ final class ComplexQuoteScanner extends SimpleQuoteScanner
         // the tokenizer is currently sitting on the separator, so increment
         tokenizer.incLineColumn();
 
+        int start = tokenizer.getCurrentContentLength();
+
         while (!tokenizer.isEndOfCurrentLine())
         {
-            String next = tokenizer.getNextCharacter();
-            Matcher matcher = MODIFIER.matcher(next);
-
-            if (matcher.find())
+            // modifier - /[^\W\d_]/
+            if (CharClass.is(tokenizer.getNextChar(), CharClass.ALPHA))
             {
-                tokenizer.appendToCurrentToken(next, true);
-                ((SectionedToken) tokenizer.getCurrentToken()).addModifier(next);
+                tokenizer.appendToCurrentToken(tokenizer.getNextCharacter(), true);
                 continue;
             }
 
@@ -131,40 +118,33 @@ final class ComplexQuoteScanner extends SimpleQuoteScanner
             tokenizer.decrLineColumn();
             break;
         }
+
+        tokenizer.setModifiers(start, tokenizer.getCurrentContentLength());
     }
 
-    private void createSection(Tokenizer tokenizer, String content, boolean eof, String separator)
+    /*
+     * the section is recorded before its content is appended, so the content length is the section position
+     */
+    private void createSection(Tokenizer tokenizer, CharSequence content, char open, char close)
     {
-        SectionedToken.Section section = new SectionedToken.Section();
+        int length = content.length();
 
-        section.type = separator + separator;
-        section.position = tokenizer.getCurrentToken().getContent().length();
         // match against braces properly, ie []
-        section.complete = content.endsWith(separator.substring(separator.length() - 1));
+        boolean complete = (length > 0) && (content.charAt(length - 1) == close);
 
-        if (eof)
-        {
-            // equivalent of 'chop'
-            content = content.substring(0, content.length() - 1);
-            section.size = content.length();
-        }
-        else
-        {
-            section.size = content.length() - 1;
-        }
-
-        ((SectionedToken) tokenizer.getCurrentToken()).addSection(section);
+        // the size excludes the close delimiter, or the space that may have been added to the end of the source
+        tokenizer.addSection(tokenizer.getCurrentContentLength(), Math.max(length - 1, 0), complete, open, close);
     }
 
-    private void fillBrace(Tokenizer tokenizer, String open, boolean threePart) throws TokenizingException
+    private void fillBrace(Tokenizer tokenizer, String open, boolean threePart)
     {
         String close = getClose(open);
 
         StringBuffer buffer = new StringBuffer();
         boolean eof = scanForBrace(tokenizer, buffer, open, close);
 
-        createSection(tokenizer, buffer.toString(), eof, open + close);
-        tokenizer.appendToCurrentToken(buffer.toString());
+        createSection(tokenizer, buffer, open.charAt(0), close.charAt(0));
+        tokenizer.appendToCurrentToken(buffer);
 
         if (eof || !threePart)
         {
@@ -196,10 +176,11 @@ final class ComplexQuoteScanner extends SimpleQuoteScanner
                 return;
             }
 
-            createSection(tokenizer, buffer.toString(), eof, open + close);
-            tokenizer.appendToCurrentToken(buffer.toString());
+            createSection(tokenizer, buffer, open.charAt(0), close.charAt(0));
+            tokenizer.appendToCurrentToken(buffer);
         }
-        else if (DELIMITER.matcher(open).matches())
+        // delimiter - /\A[^\w\s]\z/
+        else if (!CharClass.is(open, CharClass.WORD | CharClass.SPACE))
         {
             tokenizer.appendToCurrentToken(open, true);
             fillNormal(tokenizer, open, false);
@@ -207,7 +188,7 @@ final class ComplexQuoteScanner extends SimpleQuoteScanner
         else
         {
             // this is an error - PPI allows it, so we will too
-            createSection(tokenizer, "", false, "");
+            tokenizer.addSection(tokenizer.getCurrentContentLength(), 0, false, (char) 0, (char) 0);
             tokenizer.getCurrentToken().setAttribute(Attribute.INVALID);
 
             // rollback the cursor so the char is handled else where
@@ -225,8 +206,8 @@ final class ComplexQuoteScanner extends SimpleQuoteScanner
             return;
         }
 
-        createSection(tokenizer, buffer.toString(), eof, separator);
-        tokenizer.appendToCurrentToken(buffer.toString());
+        createSection(tokenizer, buffer, separator.charAt(0), separator.charAt(0));
+        tokenizer.appendToCurrentToken(buffer);
 
         if (!threePart)
         {
@@ -284,27 +265,20 @@ final class ComplexQuoteScanner extends SimpleQuoteScanner
     /*
      * cursor is left on character following the gap
      */
-    private boolean scanForGap(Tokenizer tokenizer) throws TokenizingException
+    private boolean scanForGap(Tokenizer tokenizer)
     {
         while (tokenizer.hasCurrentLine())
         {
-            String rest = tokenizer.getRestOfCurrentLine();
-            Matcher matcher = WHITESPACE.matcher(rest);
-
-            // the regexp can match 0 chars, so this should always work
-            if (!matcher.find())
-            {
-                throw new TokenizingException(String.format("failed to match [%s] using pattern [%s]", rest,
-                        WHITESPACE.pattern()));
-            }
+            CharSequence rest = tokenizer.getRestOfCurrentLine();
 
-            String matched = matcher.group();
-            tokenizer.appendToCurrentToken(matched);
+            // the gap can be empty, so this always matches
+            int end = Matchers.gap(rest);
+            tokenizer.appendToCurrentToken(rest.subSequence(0, end));
 
             // matched the gap, adjust the cursor
-            if (matched.length() != rest.length())
+            if (end != rest.length())
             {
-                tokenizer.incLineColumn(matched.length());
+                tokenizer.incLineColumn(end);
                 return false;
             }
 
@@ -13,9 +13,9 @@ final class DataScanner extends TokenScanner
     //~ Methods
 
     /*
-     * @see org.scriptkitty.ppi4j.tokenizer.TokenScanner#tokenizerOnLineStart(org.scriptkitty.ppi4j.tokenizer.Tokenizer, java.lang.String)
+     * @see org.scriptkitty.ppi4j.tokenizer.TokenScanner#tokenizerOnLineStart(org.scriptkitty.ppi4j.tokenizer.Tokenizer, java.lang.CharSequence)
      */
-    @Override protected boolean tokenizerOnLineStart(Tokenizer tokenizer, String line)
+    @Override protected boolean tokenizerOnLineStart(Tokenizer tokenizer, CharSequence line)
     {
         /*
          * PPI::Tokenizer::_process_next_char would create this token in the 'if ( $result eq '1' )' section after returning from
@@ -29,7 +29,7 @@ final class DataScanner extends TokenScanner
         }
         else
         {
-            tokenizer.createToken(DataToken.class, line);
+            tokenizer.createToken(DataToken.class, line.toString());
         }
 
         return true;
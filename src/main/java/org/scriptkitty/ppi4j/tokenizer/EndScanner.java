@@ -1,7 +1,5 @@
 package org.scriptkitty.ppi4j.tokenizer;
 
-import java.util.regex.Matcher;
-
 import org.scriptkitty.ppi4j.token.EndToken;
 
 
@@ -15,15 +13,15 @@ final class EndScanner extends TokenScanner
     //~ Methods
 
     /*
-     * @see org.scriptkitty.ppi4j.tokenizer.TokenScanner#tokenizerOnLineStart(org.scriptkitty.ppi4j.tokenizer.Tokenizer, java.lang.String)
+     * @see org.scriptkitty.ppi4j.tokenizer.TokenScanner#tokenizerOnLineStart(org.scriptkitty.ppi4j.tokenizer.Tokenizer, java.lang.CharSequence)
      */
-    @Override protected boolean tokenizerOnLineStart(Tokenizer tokenizer, String line)
+    @Override protected boolean tokenizerOnLineStart(Tokenizer tokenizer, CharSequence line)
     {
-        Matcher matcher = PodScanner.POD.matcher(line);
+        int end = Matchers.pod(line);
 
-        if (matcher.find())
+        if (end != -1)
         {
-            tokenizeMatchedPodLine(tokenizer, line, matcher);
+            tokenizeMatchedPodLine(tokenizer, line, end);
         }
         else
         {
@@ -33,7 +31,7 @@ final class EndScanner extends TokenScanner
             }
             else
             {
-                tokenizer.createToken(EndToken.class, line);
+                tokenizer.createToken(EndToken.class, line.toString());
             }
         }
 
@@ -51,7 +51,7 @@ final class ExpNumberScanner extends TokenScanner
             if (matcher.find())
             {
                 // drop the '.' and switch to a number token...
-                tokenizer.getCurrentToken().setContent(content.replace(".", ""));
+                tokenizer.setCurrentContent(content.replace(".", ""));
                 tokenizer.switchToToken(NumberToken.class);
 
                 tokenizer.createToken(OperatorToken.class, ".");
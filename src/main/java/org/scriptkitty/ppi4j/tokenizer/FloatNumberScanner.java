@@ -39,7 +39,7 @@ final class FloatNumberScanner extends TokenScanner
             {
                 // switch to a number and chop off the '.'
                 tokenizer.switchToToken(NumberToken.class);
-                tokenizer.getCurrentToken().setContent(content.substring(0, content.length() - 1));
+                tokenizer.setCurrentContent(content.substring(0, content.length() - 1));
                 // create an operator token
                 tokenizer.createToken(OperatorToken.class, "..");
                 return true;
@@ -1,9 +1,5 @@
 package org.scriptkitty.ppi4j.tokenizer;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.regex.Pattern;
-
 import org.scriptkitty.perl.lang.HereDoc;
 import org.scriptkitty.ppi4j.Token;
 import org.scriptkitty.ppi4j.exception.TokenizingException;
@@ -37,8 +33,8 @@ final class HereDocScanner extends TokenScanner
          * itself (unquoted and with no surrounding whitespace) on the terminating line.
          *
          */
-        String rest = tokenizer.getRestOfCurrentLine();
-        String content = HereDoc.getIdentifier(rest);
+        CharSequence rest = tokenizer.getRestOfCurrentLine();
+        String content = HereDoc.getIdentifier(rest.toString());
 
         // we're a << operator
         if (content == null)
@@ -55,36 +51,42 @@ final class HereDocScanner extends TokenScanner
         String terminator = parseTerminator(content, token);
         token.setTerminator(terminator);
 
-        Pattern pattern = Pattern.compile("^" + terminator + "(\r*\n|\r)$");
-
         // track the heredoc length and the it's start offset
         int offset = tokenizer.getOffset() + rest.length() + token.getLength() - content.length();
 
-        String line = tokenizer.nextLine();
-        List<String> heredoc = new ArrayList<>();
+        // the body is collected as a range of the source rather than copied line by line
+        int start = tokenizer.getSourceIndex();
+        int end = start;
+        int lines = 0;
+
+        CharSequence line = tokenizer.nextLine();
 
-        while (!"".equals(line))
+        while (line.length() > 0)
         {
             // keep the terminator line for consistency when serializing but don't consume it as any token
-            if (pattern.matcher(line).matches() || terminator.equals(line))
+            if (isTerminator(line, terminator))
             {
-                token.setTerminatorLineAndOffset(line, offset);
+                token.setTerminatorLineAndOffset(line.toString(), offset);
                 break;
             }
 
-            heredoc.add(line);
+            end += line.length();
+            lines++;
+
             line = tokenizer.nextLine();
         }
 
-        if (!heredoc.isEmpty())
+        if (lines > 0)
         {
-            if (tokenizer.chopEnabled())
+            CharSequence heredoc = tokenizer.getSource(start, end);
+
+            // trim the extra ' ' that was added by the tokenizer
+            if (tokenizer.chopEnabled() && (heredoc.charAt(heredoc.length() - 1) == ' '))
             {
-                // trim the extra ' ' that was added by the tokenizer
-                handleEOF(heredoc);
+                heredoc = heredoc.subSequence(0, heredoc.length() - 1);
             }
 
-            token.setHereDocAndOffset(heredoc, offset);
+            token.setHereDocAndOffset(heredoc, lines, offset);
         }
 
         /*
@@ -98,15 +100,36 @@ final class HereDocScanner extends TokenScanner
         return tokenizer.getScanner().tokenizerOnChar(tokenizer);
     }
 
-    private void handleEOF(List<String> heredoc)
+    /*
+     * the terminator must appear by itself on the line, followed by /(\r*\n|\r)/ or the end of the source
+     */
+    private boolean isTerminator(CharSequence line, String terminator)
     {
-        int index = heredoc.size() - 1;
-        String content = heredoc.get(index);
+        int length = terminator.length();
 
-        if (content.endsWith(" "))
+        if (!Matchers.startsWith(line, terminator))
         {
-            heredoc.set(index, content.substring(0, content.length() - 1));
+            return false;
         }
+
+        if (line.length() == length)
+        {
+            return true;
+        }
+
+        int index = length;
+        while ((index < line.length()) && (line.charAt(index) == '\r'))
+        {
+            index++;
+        }
+
+        if (index == line.length())
+        {
+            // only '\r' terminates the line, and then only a single one
+            return (index == (length + 1));
+        }
+
+        return ((index == (line.length() - 1)) && (line.charAt(index) == '\n'));
     }
 
     private String parseTerminator(String content, final HereDocToken token) throws TokenizingException
@@ -1,7 +1,5 @@
 package org.scriptkitty.ppi4j.tokenizer;
 
-import java.util.regex.Pattern;
-
 import org.scriptkitty.ppi4j.exception.TokenizingException;
 
 
@@ -12,11 +10,6 @@ import org.scriptkitty.ppi4j.exception.TokenizingException;
  */
 final class HexNumberScanner extends TokenScanner
 {
-    //~ Static fields/initializers
-
-    /** hex pattern - <code>/[\da-f]/</code> */
-    private static final Pattern HEX = Pattern.compile("[\\da-f]");
-
     //~ Methods
 
     /*
@@ -32,7 +25,7 @@ final class HexNumberScanner extends TokenScanner
             return false;
         }
 
-        if (HEX.matcher(next).matches())
+        if (CharClass.is(next, CharClass.HEX))
         {
             return false;
         }
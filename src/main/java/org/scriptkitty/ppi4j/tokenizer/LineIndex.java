@@ -0,0 +1,135 @@
+package org.scriptkitty.ppi4j.tokenizer;
+
+import java.util.Arrays;
+
+
+/**
+ * the start offset of every line in a source, recorded by the tokenizer as it reads each line.
+ *
+ * <p>lines and columns are <code>1</code> based, the same as <code>Token.getLineNumber()</code> and <code>Token.getColumn()</code>. the
+ * offsets are those of the source itself, so they agree w/ <code>Element.getStartOffset()</code> on either side of a heredoc. a source
+ * that ends w/ a line terminator has an empty last line.</p>
+ *
+ * <p>the index grows while the source is being tokenized and may be read from multiple threads once tokenizing has finished.</p>
+ */
+public final class LineIndex
+{
+    //~ Instance fields
+
+    private int count = 1;
+
+    private int[] starts = new int[64];
+
+    //~ Methods
+
+    /**
+     * @return number of lines seen so far
+     */
+    public int getLineCount()
+    {
+        return count;
+    }
+
+    /**
+     * get the start offset of a line
+     *
+     * @param  line line number
+     *
+     * @return offset of the first character of the line
+     *
+     * @throws IndexOutOfBoundsException if the line does not exist
+     */
+    public int lineToOffset(int line)
+    {
+        if ((line < 1) || (line > count))
+        {
+            throw new IndexOutOfBoundsException("line: " + line + ", lines: " + count);
+        }
+
+        return starts[line - 1];
+    }
+
+    /**
+     * get the column of an offset
+     *
+     * @param  offset source offset, offsets past the end of the source are treated as part of the last line
+     *
+     * @return column number
+     *
+     * @throws IndexOutOfBoundsException if the offset is negative
+     */
+    public int offsetToColumn(int offset)
+    {
+        return (offset - starts[offsetToLine(offset) - 1]) + 1;
+    }
+
+    /**
+     * get the line of an offset
+     *
+     * @param  offset source offset, offsets past the end of the source are treated as part of the last line
+     *
+     * @return line number
+     *
+     * @throws IndexOutOfBoundsException if the offset is negative
+     */
+    public int offsetToLine(int offset)
+    {
+        if (offset < 0)
+        {
+            throw new IndexOutOfBoundsException("offset: " + offset);
+        }
+
+        int index = Arrays.binarySearch(starts, 0, count, offset);
+
+        // not a line start, the insertion point is the line after the one containing the offset
+        return (index >= 0) ? (index + 1) : -(index + 1);
+    }
+
+    /**
+     * record the start of the next line.
+     *
+     * <p>note: this method is only intended to be used by the tokenizer.</p>
+     *
+     * @param offset offset of the first character after a line terminator
+     */
+    void addLine(int offset)
+    {
+        if (count == starts.length)
+        {
+            starts = Arrays.copyOf(starts, count * 2);
+        }
+
+        starts[count++] = offset;
+    }
+
+    /**
+     * record the lines after the first from a copy of another index.
+     *
+     * <p>note: this method is only intended to be used by the tokenizer.</p>
+     *
+     * @param lineStarts start offsets, including the first line
+     *
+     * @see   #copyStarts(int)
+     */
+    void addLines(int[] lineStarts)
+    {
+        for (int i = 1; i < lineStarts.length; i++)
+        {
+            addLine(lineStarts[i]);
+        }
+    }
+
+    /**
+     * copy the start offsets of the first lines.
+     *
+     * <p>note: this method is only intended to be used by the tokenizer.</p>
+     *
+     * @param  lines number of lines to copy, including the first
+     *
+     * @return start offsets
+     */
+    int[] copyStarts(int lines)
+    {
+        return Arrays.copyOf(starts, lines);
+    }
+}
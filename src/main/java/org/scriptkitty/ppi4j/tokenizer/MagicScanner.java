@@ -53,7 +53,7 @@ final class MagicScanner extends TokenScanner
     @Override protected boolean tokenizerOnChar(Tokenizer tokenizer) throws TokenizingException
     {
         // this represents the what the new content of the current token would be...
-        String newContent = tokenizer.getCurrentToken().getContent() + tokenizer.getNextCharacter();
+        String newContent = tokenizer.getCurrentContent() + tokenizer.getNextCharacter();
 
         if (QUICK_TEST.matcher(newContent).matches())
         {
@@ -84,7 +84,7 @@ final class MagicScanner extends TokenScanner
             // *might* be a dereference of one of the control-char symbols
             if ("$${".equals(newContent))
             {
-                String rest = tokenizer.getRestOfCurrentLine(1);
+                CharSequence rest = tokenizer.getRestOfCurrentLine(1);
                 if (UnknownScanner.CONTROL_CHAR.matcher(rest).find())
                 {
                     // we're a dereference ($${^foo})
@@ -121,9 +121,9 @@ final class MagicScanner extends TokenScanner
                 String next = tokenizer.getNextCharacter();
 
                 // maybe like $^M
-                if (MAGIC.contains(newContent) && (!"".equals(next) && !next.matches("\\w")))
+                if (MAGIC.contains(newContent) && (!"".equals(next) && !CharClass.is(next, CharClass.WORD)))
                 {
-                    tokenizer.getCurrentToken().setContent(newContent);
+                    tokenizer.setCurrentContent(newContent);
                 }
                 // maybe long magic variable, ie: $^WIDE_SYSTEM_CALLS
                 else
@@ -154,7 +154,7 @@ final class MagicScanner extends TokenScanner
             // escaped magic char, ie: %^H
             if (MAGIC.contains(newContent))
             {
-                tokenizer.getCurrentToken().setContent(newContent);
+                tokenizer.setCurrentContent(newContent);
                 tokenizer.incLineColumn();
             }
             // backoff, treat '%' as an operator
@@ -167,8 +167,8 @@ final class MagicScanner extends TokenScanner
         // $#+ and $#-
         else if (MAGIC.contains(newContent))
         {
-            tokenizer.incLineColumn(newContent.length() - tokenizer.getCurrentToken().getContent().length());
-            tokenizer.getCurrentToken().setContent(newContent);
+            tokenizer.incLineColumn(newContent.length() - tokenizer.getCurrentContentLength());
+            tokenizer.setCurrentContent(newContent);
         }
         else
         {
@@ -0,0 +1,377 @@
+package org.scriptkitty.ppi4j.tokenizer;
+
+/**
+ * hand written equivalents of the regular expressions the scanners run on every token.
+ *
+ * <p>each matcher is anchored at the start of the sequence, follows <code>java.util.regex</code> semantics for the pattern it replaces
+ * and does not allocate. matchers return the end index of the match, or <code>-1</code> if there is no match.</p>
+ */
+final class Matchers
+{
+    //~ Constructors
+
+    private Matchers()
+    {
+        // static methods only
+    }
+
+    //~ Methods
+
+    /**
+     * <code>/^\s*\Qtext\E/</code>
+     *
+     * @return end index of <code>text</code>
+     */
+    static int afterWhitespace(CharSequence line, String text)
+    {
+        int index = skip(line, 0, CharClass.SPACE);
+        return regionMatches(line, index, text) ? (index + text.length()) : -1;
+    }
+
+    /**
+     * <code>/^\s*#/</code>
+     */
+    static boolean isComment(CharSequence line)
+    {
+        return (afterWhitespace(line, "#") != -1);
+    }
+
+    /**
+     * <code>/^\s*$/</code>
+     */
+    static boolean isWhitespace(CharSequence line)
+    {
+        return isLineEnd(line, skip(line, 0, CharClass.SPACE));
+    }
+
+    /**
+     * not a pattern, the end of the line containing <code>index</code>. lines end the same way the tokenizer splits them, at <code>\r</code>,
+     * <code>\n</code> or <code>\r\n</code>.
+     *
+     * @return index after the line terminator, or the length of the sequence if the line is not terminated
+     */
+    static int lineEnd(CharSequence text, int index)
+    {
+        int length = text.length();
+
+        while (index < length)
+        {
+            char c = text.charAt(index++);
+
+            if ((c == '\r') || (c == '\n'))
+            {
+                if ((c == '\r') && (index < length) && (text.charAt(index) == '\n'))
+                {
+                    index++;
+                }
+
+                break;
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * <code>/^(\s*(?:\\#.*)?)/s</code> - the gap between a quote operator and its separator
+     *
+     * @return end index of the gap, the gap may be empty
+     */
+    static int gap(CharSequence line)
+    {
+        int end = skip(line, 0, CharClass.SPACE);
+        return startsWith(line, end, "\\#") ? line.length() : end;
+    }
+
+    /**
+     * <code>/^=(\w+)/</code>
+     *
+     * @return end index of the pod command
+     */
+    static int pod(CharSequence line)
+    {
+        if ((line.length() == 0) || (line.charAt(0) != '='))
+        {
+            return -1;
+        }
+
+        int end = skip(line, 1, CharClass.WORD);
+        return (end > 1) ? end : -1;
+    }
+
+    /**
+     * does the pod command that ends at <code>end</code> (see <code>pod(CharSequence)</code>) equal <code>cut</code>?
+     */
+    static boolean isPodCut(CharSequence line, int end)
+    {
+        return ((end == 4) && startsWith(line, "=cut"));
+    }
+
+    /**
+     * <code>/^(.*?(?<!\\)(?:\\\\)*(?:sep1|sep2|...))/</code> - the first separator that is not escaped by a backslash
+     *
+     * @param  line line
+     * @param  separators separators, tried in order at each position
+     *
+     * @return end index of the separator
+     */
+    static int quoteEnd(CharSequence line, String... separators)
+    {
+        int length = line.length();
+
+        // lazily extend the prefix one char at a time, '.' does not match line terminators
+        for (int start = 0; start <= length; start++)
+        {
+            if (start > 0)
+            {
+                char c = line.charAt(start - 1);
+
+                if (isLineTerminator(c))
+                {
+                    return -1;
+                }
+
+                // the negative look-behind
+                if (c == '\\')
+                {
+                    continue;
+                }
+            }
+
+            int run = 0;
+            while (((start + run) < length) && (line.charAt(start + run) == '\\'))
+            {
+                run++;
+            }
+
+            // as many escaped backslashes as possible, giving them back one pair at a time
+            for (int index = start + (run & ~1); index >= start; index -= 2)
+            {
+                for (String separator : separators)
+                {
+                    if (regionMatches(line, index, separator))
+                    {
+                        return index + separator.length();
+                    }
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * <code>/^(v\d+(?:\.\d+)*)/</code>
+     */
+    static int vstring(CharSequence line)
+    {
+        if ((line.length() < 2) || (line.charAt(0) != 'v') || !CharClass.is(line.charAt(1), CharClass.DIGIT))
+        {
+            return -1;
+        }
+
+        int end = skip(line, 1, CharClass.DIGIT);
+
+        while (((end + 1) < line.length()) && (line.charAt(end) == '.') && CharClass.is(line.charAt(end + 1), CharClass.DIGIT))
+        {
+            end = skip(line, end + 1, CharClass.DIGIT);
+        }
+
+        return end;
+    }
+
+    /**
+     * <code>/^((?!\d)\w+(?:(?:'|::)\w+)*(?:::)?)/</code>
+     */
+    static int word(CharSequence line)
+    {
+        if ((line.length() == 0) || !CharClass.is(line.charAt(0), CharClass.ALPHA | CharClass.UNDERSCORE))
+        {
+            return -1;
+        }
+
+        int end = skip(line, 1, CharClass.WORD);
+
+        while (true)
+        {
+            int next = separatedWord(line, end, false);
+            if (next < 0)
+            {
+                break;
+            }
+
+            end = next;
+        }
+
+        return startsWith(line, end, "::") ? (end + 2) : end;
+    }
+
+    /**
+     * <code>/^([\$@%&*] (?: : (?!:) | (?: \w+ | ' (?!\d) \w+ | :: \w+ ) (?: ' (?!\d) \w+ | :: \w+ )* (?: :: )? ))/x</code>
+     */
+    static int symbol(CharSequence line)
+    {
+        int length = line.length();
+
+        if ((length < 2) || ("$@%&*".indexOf(line.charAt(0)) == -1))
+        {
+            return -1;
+        }
+
+        if ((line.charAt(1) == ':') && !startsWith(line, 2, ":"))
+        {
+            return 2;
+        }
+
+        int end;
+
+        if (CharClass.is(line.charAt(1), CharClass.WORD))
+        {
+            end = skip(line, 1, CharClass.WORD);
+        }
+        else
+        {
+            end = separatedWord(line, 1, true);
+            if (end < 0)
+            {
+                return -1;
+            }
+        }
+
+        while (true)
+        {
+            int next = separatedWord(line, end, true);
+            if (next < 0)
+            {
+                break;
+            }
+
+            end = next;
+        }
+
+        return startsWith(line, end, "::") ? (end + 2) : end;
+    }
+
+    /**
+     * <code>/^([\w:']+)/</code>
+     */
+    static int symbolChars(CharSequence line)
+    {
+        int end = 0;
+
+        while ((end < line.length()) && (CharClass.is(line.charAt(end), CharClass.WORD | CharClass.COLON) || (line.charAt(end) == '\'')))
+        {
+            end++;
+        }
+
+        return (end > 0) ? end : -1;
+    }
+
+    /**
+     * length of the leading run of <code>\w</code> characters
+     */
+    static int wordChars(CharSequence line)
+    {
+        return skip(line, 0, CharClass.WORD);
+    }
+
+    /**
+     * does the sequence start with the given string?
+     */
+    static boolean startsWith(CharSequence line, String prefix)
+    {
+        return startsWith(line, 0, prefix);
+    }
+
+    /**
+     * does the sequence contain the given string at <code>index</code>?
+     */
+    static boolean startsWith(CharSequence line, int index, String prefix)
+    {
+        return regionMatches(line, index, prefix);
+    }
+
+    /*
+     * '$' w/o MULTILINE matches at the end of input or before a final line terminator
+     */
+    private static boolean isLineEnd(CharSequence line, int index)
+    {
+        int remaining = line.length() - index;
+
+        if (remaining == 0)
+        {
+            return true;
+        }
+
+        if (remaining == 1)
+        {
+            return isLineTerminator(line.charAt(index));
+        }
+
+        return ((remaining == 2) && (line.charAt(index) == '\r') && (line.charAt(index + 1) == '\n'));
+    }
+
+    private static boolean isLineTerminator(char c)
+    {
+        return ((c == '\n') || (c == '\r') || (c == '\u0085') || (c == '\u2028') || (c == '\u2029'));
+    }
+
+    private static boolean regionMatches(CharSequence line, int index, String s)
+    {
+        if ((index < 0) || ((index + s.length()) > line.length()))
+        {
+            return false;
+        }
+
+        for (int i = 0; i < s.length(); i++)
+        {
+            if (line.charAt(index + i) != s.charAt(i))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /*
+     * '::\w+' or "'\w+", the word after a quote may not start w/ a digit if 'strict' is set
+     */
+    private static int separatedWord(CharSequence line, int index, boolean strict)
+    {
+        int start;
+
+        if (startsWith(line, index, "::"))
+        {
+            start = index + 2;
+        }
+        else if (startsWith(line, index, "'"))
+        {
+            start = index + 1;
+
+            if (strict && (start < line.length()) && CharClass.is(line.charAt(start), CharClass.DIGIT))
+            {
+                return -1;
+            }
+        }
+        else
+        {
+            return -1;
+        }
+
+        int end = skip(line, start, CharClass.WORD);
+        return (end > start) ? end : -1;
+    }
+
+    private static int skip(CharSequence line, int index, int classes)
+    {
+        int end = index;
+
+        while ((end < line.length()) && CharClass.is(line.charAt(end), classes))
+        {
+            end++;
+        }
+
+        return end;
+    }
+}
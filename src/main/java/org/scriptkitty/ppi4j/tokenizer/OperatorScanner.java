@@ -32,7 +32,7 @@ final class OperatorScanner extends TokenScanner
     //~ Static fields/initializers
 
     /** heredoc pattern - <code>/^(?: (?!\d)\w | \s*['"`] | \\\w)/</code> */
-    private static Pattern HEREDOC = Pattern.compile("^(?: (?!\\d)\\w | \\s*['\"`] | \\\\\\w)", Pattern.COMMENTS);
+    private static final Pattern HEREDOC = Pattern.compile("^(?: (?!\\d)\\w | \\s*['\"`] | \\\\\\w)", Pattern.COMMENTS);
 
     /** set of perl operators */
     static final Set<String> OPERATORS = new HashSet<String>()
@@ -107,7 +107,7 @@ final class OperatorScanner extends TokenScanner
     @Override protected boolean tokenizerOnChar(Tokenizer tokenizer) throws TokenizingException
     {
         String next = tokenizer.getNextCharacter();
-        String content = tokenizer.getCurrentToken().getContent();
+        String content = tokenizer.getCurrentContent();
 
         if (OPERATORS.contains(content + next))
         {
@@ -116,7 +116,7 @@ final class OperatorScanner extends TokenScanner
         }
 
         // handle special case of decimal, ie: .1234
-        if (content.equals(".") && next.matches("^[0-9]$"))
+        if (content.equals(".") && CharClass.is(next, CharClass.DIGIT))
         {
             tokenizer.switchToToken(FloatNumberToken.class);
             return tokenizer.getScanner().tokenizerOnChar(tokenizer);
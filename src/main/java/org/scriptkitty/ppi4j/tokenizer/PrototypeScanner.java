@@ -25,7 +25,7 @@ final class PrototypeScanner extends TokenScanner
      */
     @Override protected boolean tokenizerOnChar(Tokenizer tokenizer) throws TokenizingException
     {
-        String line = tokenizer.getRestOfCurrentLine();
+        CharSequence line = tokenizer.getRestOfCurrentLine();
         Matcher matcher = CLOSE.matcher(line);
 
         if (matcher.find())
@@ -34,7 +34,7 @@ final class PrototypeScanner extends TokenScanner
         }
 
         // shortcut EOF
-        if (line.matches("\\)$"))
+        if (")".contentEquals(line))
         {
             return true;
         }
@@ -0,0 +1,386 @@
+package org.scriptkitty.ppi4j.tokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.scriptkitty.ppi4j.Token;
+import org.scriptkitty.ppi4j.exception.TokenizerException;
+import org.scriptkitty.ppi4j.token.HereDocToken;
+import org.scriptkitty.ppi4j.token.SeparatorToken;
+import org.scriptkitty.ppi4j.token.StructureToken;
+import org.scriptkitty.ppi4j.token.WordToken;
+
+
+/**
+ * tokenizes a large source as a number of segments in parallel.
+ *
+ * <p>a quick pre-scan of the source looks for lines that are likely to start a new top level construct: a pod block, a <code>
+ * package</code> or <code>sub</code> declaration at column <code>0</code>, or the <code>__END__</code> / <code>__DATA__</code>
+ * separator. the source is split at some of those lines, each segment is tokenized by its own <code>Tokenizer</code> and the offsets and
+ * line numbers of the tokens are then moved to where they are in the whole source.</p>
+ *
+ * <p>the pre-scan can not see into heredocs or multi-line quotes, so every split is checked once the segments have been tokenized: the
+ * segment before it must have ended cleanly after a <code>;</code> or <code>}</code> and the segment after it must start w/ one of the
+ * declarations above. if any split fails the check the source is tokenized sequentially instead, so the tokens are always the same as
+ * those of a single <code>Tokenizer</code>.</p>
+ */
+public final class SegmentedTokenizer
+{
+    //~ Static fields/initializers
+
+    /** default minimum length of a segment */
+    public static final int DEFAULT_SEGMENT_LENGTH = 64 * 1024;
+
+    //~ Instance fields
+
+    private final ExecutorService executor;
+
+    private final int segmentLength;
+
+    private final String source;
+
+    private LineIndex lines;
+
+    private boolean split;
+
+    private List<Token> tokens;
+
+    //~ Constructors
+
+    public SegmentedTokenizer(String source, ExecutorService executor)
+    {
+        this(source, executor, DEFAULT_SEGMENT_LENGTH);
+    }
+
+    /**
+     * create a segmented tokenizer
+     *
+     * @param source source
+     * @param executor runs all but the first segment, which is tokenized by the calling thread
+     * @param segmentLength minimum length of a segment, sources shorter than twice this length are never split
+     */
+    public SegmentedTokenizer(String source, ExecutorService executor, int segmentLength)
+    {
+        this.source = source;
+        this.executor = executor;
+        this.segmentLength = Math.max(1, segmentLength);
+    }
+
+    //~ Methods
+
+    /**
+     * find the offsets the source could be split at.
+     *
+     * <p>each offset is the start of a line that starts a pod block, a <code>package</code> or <code>sub</code> declaration or the <code>
+     * __END__</code> / <code>__DATA__</code> separator, and is at least <code>segmentLength</code> chars after the previous offset. lines
+     * inside pod blocks and after the separator are never split at.</p>
+     *
+     * @param  source source
+     * @param  segmentLength minimum distance between offsets
+     *
+     * @return split offsets, in ascending order
+     */
+    public static int[] findSplitPoints(CharSequence source, int segmentLength)
+    {
+        List<Integer> points = new ArrayList<>();
+
+        boolean pod = false;
+        boolean separator = false;
+
+        int last = 0;
+        int length = source.length();
+
+        for (int index = 0; (index < length) && !separator; index = Matchers.lineEnd(source, index))
+        {
+            boolean candidate = false;
+
+            if (source.charAt(index) == '=')
+            {
+                CharSequence line = source.subSequence(index, Matchers.lineEnd(source, index));
+                int end = Matchers.pod(line);
+
+                if (end == -1)
+                {
+                    continue;
+                }
+
+                // the line that starts a pod block never ends it, even if it is a '=cut'
+                candidate = !pod;
+                pod = !pod || !Matchers.isPodCut(line, end);
+            }
+            else if (!pod)
+            {
+                separator = isWordAt(source, index, "__END__") || isWordAt(source, index, "__DATA__");
+                candidate = separator || isWordAt(source, index, "package") || isWordAt(source, index, "sub");
+            }
+
+            if (candidate && (index > 0) && ((index - last) >= segmentLength))
+            {
+                points.add(index);
+                last = index;
+            }
+        }
+
+        int[] array = new int[points.size()];
+        for (int i = 0; i < array.length; i++)
+        {
+            array[i] = points.get(i);
+        }
+
+        return array;
+    }
+
+    /**
+     * get the line start index of the source
+     *
+     * @return line index
+     *
+     * @throws IllegalStateException if the source has not been tokenized yet
+     */
+    public LineIndex getLineIndex()
+    {
+        if (lines == null)
+        {
+            throw new IllegalStateException("source has not been tokenized");
+        }
+
+        return lines;
+    }
+
+    /**
+     * tokenize the source, the source is only tokenized by the first call.
+     *
+     * @return tokens
+     *
+     * @throws TokenizerException if the source can not be tokenized
+     */
+    public List<Token> getTokens() throws TokenizerException
+    {
+        if (tokens != null)
+        {
+            return tokens;
+        }
+
+        int[] points = (source.length() < (segmentLength * 2)) ? new int[0] : findSplitPoints(source, segmentLength);
+
+        if (points.length > 0)
+        {
+            tokens = tokenizeSegments(points);
+        }
+
+        split = (tokens != null);
+
+        if (!split)
+        {
+            Tokenizer tokenizer = new Tokenizer(source);
+
+            tokens = tokenizer.getTokens();
+            lines = tokenizer.getLineIndex();
+        }
+
+        return tokens;
+    }
+
+    /**
+     * @return <code>true</code> if the source was tokenized as segments, <code>false</code> if it was tokenized sequentially
+     */
+    public boolean isSplit()
+    {
+        return split;
+    }
+
+    private static Token firstSignificantToken(List<Token> tokens)
+    {
+        for (Token token : tokens)
+        {
+            if (token.isSignificant())
+            {
+                return token;
+            }
+        }
+
+        return null;
+    }
+
+    /*
+     * the tokens that decide how the first tokens of a segment are read are the same at the start of a statement as at the start of the
+     * source
+     */
+    private static boolean isSegmentEnd(Token token)
+    {
+        return ((token == null) ||
+                ((token instanceof StructureToken) && (";".equals(token.getContent()) || "}".equals(token.getContent()))));
+    }
+
+    private static boolean isSegmentStart(Token token)
+    {
+        return ((token == null) || (token instanceof SeparatorToken) ||
+                ((token instanceof WordToken) && ("package".equals(token.getContent()) || "sub".equals(token.getContent()))));
+    }
+
+    private static boolean isWordAt(CharSequence source, int index, String word)
+    {
+        int end = index + word.length();
+
+        return (Matchers.startsWith(source, index, word) && ((end == source.length()) || CharClass.is(source.charAt(end), CharClass.SPACE)));
+    }
+
+    private static Token lastSignificantToken(List<Token> tokens, Token last)
+    {
+        for (int i = tokens.size() - 1; i >= 0; i--)
+        {
+            if (tokens.get(i).isSignificant())
+            {
+                return tokens.get(i);
+            }
+        }
+
+        return last;
+    }
+
+    private static void moveToken(Token token, int offset, int lineBase)
+    {
+        token.setStartOffset(token.getStartOffset() + offset);
+        token.setLineNumber(token.getLineNumber() + lineBase);
+
+        if (!(token instanceof HereDocToken))
+        {
+            return;
+        }
+
+        HereDocToken heredoc = (HereDocToken) token;
+
+        // the terminator offset is stored relative to the heredoc contents
+        if (heredoc.isTerminated())
+        {
+            heredoc.setTerminatorLineAndOffset(heredoc.getTerminatorLine(),
+                (heredoc.getTerminatorOffset() - heredoc.getHereDocLength()) + offset);
+        }
+
+        if (heredoc.getLineCount() > 0)
+        {
+            heredoc.setHereDocAndOffset(heredoc.getHereDocContent(), heredoc.getLineCount(), heredoc.getHereDocOffset() + offset);
+        }
+    }
+
+    /*
+     * null if any segment could not be tokenized or any split turned out to be unsafe
+     */
+    private List<Token> stitch(List<Segment> segments)
+    {
+        List<Token> list = new ArrayList<>();
+        LineIndex index = new LineIndex();
+
+        Token last = null;
+
+        for (int i = 0; i < segments.size(); i++)
+        {
+            Segment segment = segments.get(i);
+
+            if ((i > 0) &&
+                    !(segments.get(i - 1).tokenizer.isCleanEOF() && isSegmentEnd(last) && isSegmentStart(firstSignificantToken(segment.tokens))))
+            {
+                return null;
+            }
+
+            // the first line of a segment is the empty last line of the one before it
+            int lineBase = index.getLineCount() - 1;
+            LineIndex segmentLines = segment.tokenizer.getLineIndex();
+
+            for (int line = 2; line <= segmentLines.getLineCount(); line++)
+            {
+                index.addLine(segmentLines.lineToOffset(line) + segment.start);
+            }
+
+            for (Token token : segment.tokens)
+            {
+                if (i > 0)
+                {
+                    moveToken(token, segment.start, lineBase);
+                }
+
+                list.add(token);
+            }
+
+            last = lastSignificantToken(segment.tokens, last);
+        }
+
+        lines = index;
+
+        return list;
+    }
+
+    private List<Token> tokenizeSegments(int[] points)
+    {
+        List<Segment> segments = new ArrayList<>();
+        List<Future<Segment>> futures = new ArrayList<>();
+
+        for (int i = 0; i < points.length; i++)
+        {
+            int end = ((i + 1) < points.length) ? points[i + 1] : source.length();
+            futures.add(executor.submit(new Segment(points[i], end)));
+        }
+
+        try
+        {
+            segments.add(new Segment(0, points[0]).call());
+
+            for (Future<Segment> future : futures)
+            {
+                segments.add(future.get());
+            }
+        }
+        catch (TokenizerException | ExecutionException e)
+        {
+            // tokenizing sequentially reports the error against the whole source
+            return null;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        finally
+        {
+            for (Future<Segment> future : futures)
+            {
+                future.cancel(true);
+            }
+        }
+
+        return stitch(segments);
+    }
+
+    //~ Inner Classes
+
+    private class Segment implements Callable<Segment>
+    {
+        private final int end;
+        private final int start;
+
+        private Tokenizer tokenizer;
+
+        private List<Token> tokens;
+
+        Segment(int start, int end)
+        {
+            this.start = start;
+            this.end = end;
+        }
+
+        /*
+         * @see java.util.concurrent.Callable#call()
+         */
+        @Override public Segment call() throws TokenizerException
+        {
+            tokenizer = new Tokenizer(source.substring(start, end));
+            tokens = tokenizer.getTokens();
+
+            return this;
+        }
+    }
+}
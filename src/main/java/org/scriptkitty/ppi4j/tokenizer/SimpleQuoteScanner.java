@@ -1,7 +1,5 @@
 package org.scriptkitty.ppi4j.tokenizer;
 
-import java.util.regex.Pattern;
-
 import org.scriptkitty.ppi4j.exception.TokenizingException;
 
 
@@ -29,15 +27,21 @@ class SimpleQuoteScanner extends TokenScanner
         tokenizer.appendToCurrentToken(buffer.toString());
     }
 
-    protected final boolean scanForBrace(Tokenizer tokenizer, StringBuffer buffer, final String open, String close)
+    protected final boolean scanForBrace(Tokenizer tokenizer, StringBuffer buffer, final String open, final String close)
     {
-        Pattern pattern = compile("(?:" + Pattern.quote(open) + "|" + Pattern.quote(close) + ")");
+        Finder finder = new Finder()
+        {
+            @Override public int find(CharSequence rest)
+            {
+                return Matchers.quoteEnd(rest, open, close);
+            }
+        };
 
-        boolean eof = scanFor(tokenizer, buffer, pattern, false, new Depth()
+        boolean eof = scanFor(tokenizer, buffer, finder, false, new Depth()
             {
-                @Override public int calculate(String matched)
+                @Override public int calculate(CharSequence matched)
                 {
-                    return (matched.endsWith(open) ? 1 : -1);
+                    return (Matchers.startsWith(matched, matched.length() - open.length(), open) ? 1 : -1);
                 }
 
                 @Override public int initial()
@@ -51,11 +55,19 @@ class SimpleQuoteScanner extends TokenScanner
         return eof;
     }
 
-    protected final boolean scanForUnescapedChar(Tokenizer tokenizer, StringBuffer buffer, String separator)
+    protected final boolean scanForUnescapedChar(Tokenizer tokenizer, StringBuffer buffer, final String separator)
     {
-        return scanFor(tokenizer, buffer, compile(Pattern.quote(separator)), true, new Depth()
+        Finder finder = new Finder()
+        {
+            @Override public int find(CharSequence rest)
+            {
+                return Matchers.quoteEnd(rest, separator);
+            }
+        };
+
+        return scanFor(tokenizer, buffer, finder, true, new Depth()
             {
-                @Override public int calculate(String matched)
+                @Override public int calculate(CharSequence matched)
                 {
                     return 0;
                 }
@@ -79,9 +91,4 @@ class SimpleQuoteScanner extends TokenScanner
     {
         return self;
     }
-
-    private Pattern compile(String pattern)
-    {
-        return Pattern.compile("^(.*?(?<!\\\\)(?:\\\\\\\\)*" + pattern + ")");
-    }
 }
@@ -1,43 +1,27 @@
 package org.scriptkitty.ppi4j.tokenizer;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 import org.scriptkitty.ppi4j.exception.TokenizingException;
 import org.scriptkitty.ppi4j.token.MagicToken;
 
 
 final class SymbolScanner extends TokenScanner
 {
-    //~ Static fields/initializers
-
-    private static final Pattern END_OF_SYMBOL = Pattern.compile("^([\\w:\']+)");
-
-    private static final Pattern MAGIC = Pattern.compile("^(?:\\$|\\@)\\d+");
-
-    private static final Pattern OVERSUCK = Pattern.compile(
-        "^([\\$@%&*] (?: : (?!:) | (?: \\w+ | \' (?!\\d) \\w+ | \\:: \\w+ ) (?: (?: \' (?!\\d) \\w+ | \\:: \\w+ ))* (?: :: )? ))",
-        Pattern.COMMENTS);
-
-    private static final Pattern SYMBOL = Pattern.compile("[\\$%*@&]::(?:[^\\w]|$)");
-
     //~ Methods
 
     @Override protected boolean tokenizerOnChar(Tokenizer tokenizer) throws TokenizingException
     {
-        // pull everything in, we'll handle 'extra' stuff at the end...
-        Matcher matcher = END_OF_SYMBOL.matcher(tokenizer.getRestOfCurrentLine());
-        if (matcher.find())
+        // pull everything in, we'll handle 'extra' stuff at the end... - /^([\w:']+)/
+        CharSequence rest = tokenizer.getRestOfCurrentLine();
+        int end = Matchers.symbolChars(rest);
+        if (end != -1)
         {
-            tokenizer.appendToCurrentToken(matcher.group(1), true);
+            tokenizer.appendToCurrentToken(rest.subSequence(0, end), true);
         }
 
-        String content = tokenizer.getCurrentToken().getContent();
-
-        matcher = MAGIC.matcher(content);
+        String content = tokenizer.getCurrentContent();
 
         // magic
-        if ("@_".equals(content) || "$_".equals(content) || matcher.find())
+        if ("@_".equals(content) || "$_".equals(content) || isNumbered(content))
         {
             tokenizer.switchToToken(MagicToken.class);
             tokenizer.finalizeToken();
@@ -59,14 +43,11 @@ final class SymbolScanner extends TokenScanner
             }
         }
 
-        matcher.reset();
-        matcher.usePattern(SYMBOL);
-
-        if (content.matches("[\\$%*@&]::(?:[^\\w]|$)"))
+        if (isPackageSymbol(content))
         {
             String current = content.substring(0, 3);
 
-            tokenizer.getCurrentToken().setContent(current);
+            tokenizer.setCurrentContent(current);
             tokenizer.decrLineColumn(content.length() - current.length());
 
             tokenizer.finalizeToken();
@@ -74,23 +55,44 @@ final class SymbolScanner extends TokenScanner
 
         }
 
-        matcher.reset();
-        matcher.usePattern(OVERSUCK);
+        end = Matchers.symbol(content);
 
-        if (!matcher.find())
+        if (end == -1)
         {
             throw new TokenizingException("symbol trim regexp did not match");
         }
 
-        String matched = matcher.group(1);
-
-        if (matched.length() != content.length())
+        if (end != content.length())
         {
-            tokenizer.getCurrentToken().setContent(matched);
-            tokenizer.incLineColumn(matched.length() - content.length());
+            tokenizer.setCurrentContent(content.substring(0, end));
+            tokenizer.incLineColumn(end - content.length());
         }
 
         tokenizer.finalizeToken();
         return tokenizer.getScanner().tokenizerOnChar(tokenizer);
     }
+
+    /*
+     * /^[\$%*@&]::(?:[^\w]|$)/ - the symbol is just a package name, ie: $::
+     */
+    private boolean isPackageSymbol(String content)
+    {
+        int length = content.length();
+
+        if (((length != 3) && (length != 4)) || ("$%*@&".indexOf(content.charAt(0)) == -1) || !content.startsWith("::", 1))
+        {
+            return false;
+        }
+
+        return ((length == 3) || !CharClass.is(content.charAt(3), CharClass.WORD));
+    }
+
+    /*
+     * /^(?:\$|\@)\d+/ - $1, @2, etc
+     */
+    private boolean isNumbered(String content)
+    {
+        return ((content.length() > 1) && ((content.charAt(0) == '$') || (content.charAt(0) == '@')) &&
+                CharClass.is(content.charAt(1), CharClass.DIGIT));
+    }
 }
@@ -0,0 +1,163 @@
+package org.scriptkitty.ppi4j.tokenizer;
+
+import org.scriptkitty.ppi4j.Element;
+import org.scriptkitty.ppi4j.ElementFactory;
+import org.scriptkitty.ppi4j.Token;
+import org.scriptkitty.ppi4j.token.WhitespaceToken;
+
+
+/**
+ * fixed size ring of the most recent significant tokens, used by the scanners to look behind the current token.
+ *
+ * <p>the tokenizer does not keep the tokens it has already handed out, so this is the only lookback available to the scanners.</p>
+ */
+final class TokenHistory
+{
+    //~ Static fields/initializers
+
+    /** the deepest lookback any scanner needs */
+    static final int CAPACITY = 4;
+
+    //~ Instance fields
+
+    private int head;
+
+    private int size;
+
+    private final Token[] ring = new Token[CAPACITY];
+
+    //~ Methods
+
+    /**
+     * record a finalized token, insignificant tokens are ignored
+     *
+     * @param token token
+     */
+    void add(Token token)
+    {
+        if (!token.isSignificant())
+        {
+            return;
+        }
+
+        ring[head] = token;
+        head = (head + 1) % CAPACITY;
+
+        if (size < CAPACITY)
+        {
+            size++;
+        }
+    }
+
+    /**
+     * get a previous significant token
+     *
+     * @param  index <code>0</code> for the most recent token, <code>1</code> for the one before it, etc
+     *
+     * @return token, or <code>WhitespaceToken.NULL</code> if there are not enough tokens
+     */
+    Token get(int index)
+    {
+        if (index >= CAPACITY)
+        {
+            throw new IllegalArgumentException("lookback of " + index + " exceeds history of " + CAPACITY);
+        }
+
+        if (index >= size)
+        {
+            return WhitespaceToken.NULL;
+        }
+
+        return ring[(head - 1 - index + CAPACITY) % CAPACITY];
+    }
+
+    /**
+     * replace the contents of this history w/ new tokens created from a snapshot
+     *
+     * @param entries snapshot, oldest token first
+     * @param factory creates the tokens
+     */
+    void restore(Entry[] entries, ElementFactory factory)
+    {
+        head = 0;
+        size = 0;
+
+        for (Entry entry : entries)
+        {
+            add(entry.create(factory));
+        }
+    }
+
+    /**
+     * take a copy of the tokens in the history that does not refer to the tokens themselves, they hold on to the source they were read
+     * from.
+     *
+     * @return snapshot, oldest token first
+     */
+    Entry[] snapshot()
+    {
+        Entry[] entries = new Entry[size];
+
+        for (int i = 0; i < size; i++)
+        {
+            entries[i] = new Entry(get(size - 1 - i));
+        }
+
+        return entries;
+    }
+
+    //~ Inner Classes
+
+    /**
+     * what the scanners look at when they look behind the current token: its kind, content, position and attribute.
+     */
+    static final class Entry
+    {
+        private final Class<? extends Token> type;
+
+        private final String content;
+
+        private final int column;
+        private final int line;
+        private final int start;
+
+        private final Element.Attribute attribute;
+
+        Entry(Token token)
+        {
+            this.type = token.getClass();
+            this.content = token.getContent();
+            this.column = token.getColumn();
+            this.line = token.getLineNumber();
+            this.start = token.getStartOffset();
+
+            Element.Attribute found = null;
+            for (Element.Attribute value : Element.Attribute.values())
+            {
+                if (token.hasAttribute(value))
+                {
+                    found = value;
+                }
+            }
+
+            this.attribute = found;
+        }
+
+        Token create(ElementFactory factory)
+        {
+            Token token = factory.create(type);
+
+            token.setContent(content);
+            token.setColumn(column);
+            token.setLineNumber(line);
+            token.setStartOffset(start);
+
+            if (attribute != null)
+            {
+                token.setAttribute(attribute);
+            }
+
+            return token;
+        }
+    }
+}
@@ -2,8 +2,6 @@ package org.scriptkitty.ppi4j.tokenizer;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.scriptkitty.ppi4j.exception.TokenizingException;
 import org.scriptkitty.ppi4j.token.ArrayIndexToken;
@@ -98,17 +96,17 @@ abstract class TokenScanner
 
     //~ Methods
 
-    protected final boolean scanFor(Tokenizer tokenizer, StringBuffer buffer, Pattern pattern, boolean rewind, Depth calc)
+    protected final boolean scanFor(Tokenizer tokenizer, StringBuffer buffer, Finder finder, boolean rewind, Depth calc)
     {
         int depth = calc.initial();
 
         while (tokenizer.hasCurrentLine())
         {
-            String rest = tokenizer.getRestOfCurrentLine();
-            Matcher matcher = pattern.matcher(rest);
+            CharSequence rest = tokenizer.getRestOfCurrentLine();
+            int end = finder.find(rest);
 
             // if we don't find a match...
-            if (!matcher.find())
+            if (end < 0)
             {
                 // append the rest of the line and prepare the next...
                 buffer.append(rest);
@@ -123,13 +121,14 @@ abstract class TokenScanner
                 continue;
             }
 
-            buffer.append(matcher.group());
+            CharSequence matched = rest.subSequence(0, end);
+            buffer.append(matched);
 
             // adjust the line column based upon if we rewind upon match
-            tokenizer.incLineColumn(matcher.group().length() - (rewind ? 1 : 0));
+            tokenizer.incLineColumn(end - (rewind ? 1 : 0));
 
             // track any nesting levels that may be associated with the token type
-            depth += calc.calculate(matcher.group());
+            depth += calc.calculate(matched);
 
             // keep going if we're not 0
             if (depth == 0)
@@ -142,10 +141,19 @@ abstract class TokenScanner
         return true;
     }
 
-    protected final void tokenizeMatchedPodLine(Tokenizer tokenizer, String line, Matcher matcher)
+    /**
+     * @param end end index of the pod command, see <code>Matchers.pod(CharSequence)</code>
+     */
+    protected final void tokenizeMatchedPodLine(Tokenizer tokenizer, CharSequence line, int end)
     {
-        tokenizer.createToken(PodToken.class, line);
-        if (!matcher.group(1).equals("cut"))
+        if (tokenizer.isSignificantOnly())
+        {
+            skipPod(tokenizer, line);
+            return;
+        }
+
+        tokenizer.createToken(PodToken.class, line.toString());
+        if (!Matchers.isPodCut(line, end))
         {
             /*
              * PPI claims this is an error (and correctly so, '=cut' should not start a section of pod) and we should not switch the scanner
@@ -173,7 +181,7 @@ abstract class TokenScanner
         return false;
     }
 
-    protected void tokenizerOnLineEnd(Tokenizer tokenizer, String line)
+    protected void tokenizerOnLineEnd(Tokenizer tokenizer, CharSequence line)
     {
         // default does nothing...
     }
@@ -181,17 +189,47 @@ abstract class TokenScanner
     /**
      * @return <code>true</true> if the class has consumed the line, <code>false</code> otherwise
      */
-    protected boolean tokenizerOnLineStart(Tokenizer tokenizer, String line)
+    protected boolean tokenizerOnLineStart(Tokenizer tokenizer, CharSequence line)
     {
         return false;
     }
 
+    /*
+     * consume the lines of the pod directly, the same lines the pod scanner would have appended to the token. creating the pod token
+     * switches to the pod scanner even when the first line is '=cut', so only the lines after it can end the pod.
+     */
+    private static void skipPod(Tokenizer tokenizer, CharSequence line)
+    {
+        int length = line.length();
+
+        while (true)
+        {
+            CharSequence next = tokenizer.nextLine();
+            length += next.length();
+
+            if ((next.length() == 0) || Matchers.isPodCut(next, Matchers.pod(next)))
+            {
+                break;
+            }
+        }
+
+        tokenizer.skip(length);
+    }
+
     //~ Inner Interfaces
 
     protected interface Depth
     {
-        int calculate(String matched);
+        int calculate(CharSequence matched);
 
         int initial();
     }
+
+    protected interface Finder
+    {
+        /**
+         * @return end index of the match, or <code>-1</code> if there is no match
+         */
+        int find(CharSequence rest);
+    }
 }
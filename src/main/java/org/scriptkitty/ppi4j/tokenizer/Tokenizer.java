@@ -1,43 +1,154 @@
 package org.scriptkitty.ppi4j.tokenizer;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.regex.Pattern;
 
+import org.scriptkitty.ppi4j.ElementFactory;
 import org.scriptkitty.ppi4j.Token;
 import org.scriptkitty.ppi4j.exception.TokenizerException;
+import org.scriptkitty.ppi4j.exception.UncheckedTokenizerException;
 import org.scriptkitty.ppi4j.token.BOMToken;
+import org.scriptkitty.ppi4j.token.CommentToken;
+import org.scriptkitty.ppi4j.token.DataToken;
+import org.scriptkitty.ppi4j.token.EndToken;
 import org.scriptkitty.ppi4j.token.HereDocToken;
+import org.scriptkitty.ppi4j.token.PodToken;
+import org.scriptkitty.ppi4j.token.SectionedToken;
 import org.scriptkitty.ppi4j.token.WhitespaceToken;
+import org.scriptkitty.ppi4j.util.CharArraySequence;
+
+
+/**
+ * splits perl source into <code>Token</code> objects.
+ *
+ * <p>tokens are only held until they have been handed out by <code>next()</code> or the iterator, so a tokenizer can walk an input of
+ * any size in constant memory.</p>
+ *
+ * <p>a tokenizer instance is not thread safe, but tokenizers share no mutable state so independent instances may be used from multiple
+ * threads at the same time.</p>
+ */
+public final class Tokenizer implements Closeable, Iterable<Token>
+{
+    //~ Static fields/initializers
 
+    /** initial size of the buffer used when reading from a <code>Reader</code> */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** single character strings for ascii, so looking at the next character does not allocate */
+    private static final String[] ASCII = new String[128];
+
+    static
+    {
+        for (char c = 0; c < ASCII.length; c++)
+        {
+            ASCII[c] = String.valueOf(c).intern();
+        }
+    }
+
+    /** token types that are never handed out when only significant tokens are wanted */
+    private static final Set<Class<? extends Token>> SKIPPED = new HashSet<Class<? extends Token>>()
+    {
+        private static final long serialVersionUID = -3379256328212442106L;
+
+        {
+            add(BOMToken.class);
+            add(CommentToken.class);
+            add(DataToken.class);
+            add(EndToken.class);
+            add(PodToken.class);
+            add(WhitespaceToken.class);
+        }
+    };
 
-public final class Tokenizer
-{
     //~ Instance fields
 
     private boolean chopEOF = true;
 
+    /* the source ended at the start of a line, outside of any token or construct */
+    private boolean cleanEOF;
+
+    private boolean finished;
     private boolean forceEOF;
 
+    private boolean significantOnly;
+
+    /* was the text of the last finalized token skipped instead of being queued? */
+    private boolean skippedLast;
+
+    /* a scanner reached the end of the source while consuming lines */
+    private boolean truncated;
+
+    /*
+     * the source buffer - when reading from a stream this only holds the text from the start of the current line onwards. 'base' is the
+     * offset in the document of source[0] and 'limit' is the number of valid chars in the buffer. a full buffer is replaced rather than
+     * overwritten, tokens may still hold a view of it.
+     */
     private char[] source;
+    private int base;
+    private int limit;
+
+    private Reader reader;
+
     private int currentLineCol;
 
+    /* bounds of the current line in the source, the line is not copied out of the source */
+    private int lineEnd;
+    private int lineStart = -1;
+
     private int hdOffset = 0;
     private int lineNumber = 0;
 
     private int offset;
 
     private int sIndex;
-    private int tIndex;
 
-    private List<Token> tokens;
+    /* finalized tokens that have not been handed out yet */
+    private final ArrayDeque<Token> tokens = new ArrayDeque<>();
+
+    private final TokenHistory history = new TokenHistory();
+
+    private ElementFactory factory = new ElementFactory();
+    private final LineIndex lines = new LineIndex();
     private final Pattern SEPARATOR = Pattern.compile("^__(?:DATA|END)__\\s*$");
     private final Pattern TRAILING_WS = Pattern.compile("\\s$");
 
-    private String currentLine;
-
+    /*
+     * the token being built - scanners often change their mind about the token type, so only the type and content are tracked until a
+     * scanner needs the token object itself or the token is finalized
+     */
     private Token current;
 
+    private Class<? extends Token> currentType;
+
+    /*
+     * sections and modifiers the quote scanner found in the token being built - the modifier start and end index then five ints per
+     * section, see SectionedToken.setSectionBounds
+     */
+    private final int[] bounds = new int[12];
+    private int boundsLength = 2;
+
+    private int currentLineNumber;
+
+    private final StringBuilder pending = new StringBuilder();
+
     private TokenScanner delegate;
 
     private TokenScanner zone;
@@ -46,76 +157,377 @@ public final class Tokenizer
 
     public Tokenizer(String source)
     {
-        this.tokens = new ArrayList<>();
-        this.source = prepSource(source);
+        // leave room for the trailing space that may be added
+        this.source = new char[source.length() + 1];
+        this.limit = source.length();
+        source.getChars(0, limit, this.source, 0);
+
+        prepSourceEnd();
 
         switchToZone(WhitespaceToken.class);
         switchToScanner(BOMToken.class);
     }
 
+    /**
+     * create a tokenizer that carries on from a snapshot.
+     *
+     * <p>the source must be the same as the one the snapshot was taken from up to <code>state.getSourceOffset()</code>, anything after that
+     * may have changed.</p>
+     *
+     * @param  source source
+     * @param  state snapshot
+     *
+     * @throws IllegalArgumentException if the snapshot offset is not the start of a line in the source
+     */
+    public Tokenizer(String source, TokenizerState state)
+    {
+        this(source);
+
+        int start = state.sourceOffset;
+
+        if ((start > source.length()) || !isLineStart(source, start))
+        {
+            throw new IllegalArgumentException("offset " + start + " is not the start of a line");
+        }
+
+        sIndex = start;
+        restore(state);
+    }
+
+    /**
+     * create a tokenizer that reads its source incrementally.
+     *
+     * <p>the reader is consumed through a fixed size buffer as tokens are requested, and is closed once the end of the input has been
+     * reached.</p>
+     *
+     * @param reader source reader
+     */
+    public Tokenizer(Reader reader)
+    {
+        this.reader = reader;
+        this.source = new char[BUFFER_SIZE];
+
+        switchToZone(WhitespaceToken.class);
+        switchToScanner(BOMToken.class);
+    }
+
+    /**
+     * create a tokenizer that carries on from a snapshot, reading the rest of the source incrementally.
+     *
+     * @param reader source reader, positioned at <code>state.getSourceOffset()</code>
+     * @param state snapshot
+     */
+    public Tokenizer(Reader reader, TokenizerState state)
+    {
+        this(reader);
+
+        base = state.sourceOffset;
+        restore(state);
+    }
+
+    /**
+     * create a tokenizer that reads its source incrementally from a channel.
+     *
+     * <p>malformed input is replaced rather than reported, the same as decoding the bytes into a <code>String</code>.</p>
+     *
+     * @param channel source channel
+     * @param charset source charset
+     */
+    public Tokenizer(ReadableByteChannel channel, Charset charset)
+    {
+        this(Channels.newReader(channel,
+                charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE), -1));
+    }
+
+    /**
+     * create a tokenizer that reads its source incrementally from a file
+     *
+     * @param  path source file
+     * @param  charset source charset
+     *
+     * @throws IOException if the file can not be opened
+     */
+    public Tokenizer(Path path, Charset charset) throws IOException
+    {
+        this(FileChannel.open(path), charset);
+    }
+
     //~ Methods
 
-    public List<Token> getTokens() throws TokenizerException
+    /**
+     * close the underlying reader, if any, before the end of the input has been reached
+     *
+     * @throws IOException if the reader can not be closed
+     */
+    @Override public void close() throws IOException
     {
-        while (true)
+        if (reader != null)
         {
-            if (!parseNextLine())
-            {
-                break;
-            }
+            reader.close();
+            reader = null;
         }
+    }
 
-        finalizeEOF();
+    /**
+     * @return factory used to create tokens
+     *
+     * @see #setElementFactory(ElementFactory)
+     */
+    public ElementFactory getElementFactory()
+    {
+        return factory;
+    }
 
-        return tokens;
+    /**
+     * get the line start index of the source, it covers every line that has been read so far.
+     *
+     * @return line index
+     */
+    public LineIndex getLineIndex()
+    {
+        return lines;
     }
 
-    public Token next() throws TokenizerException
+    /**
+     * take a snapshot of the tokenizer at the start of the next line it will read.
+     *
+     * <p>the tokenizer is always at the start of a line between calls to <code>next()</code>, so a snapshot can be taken at any time. once
+     * the end of the source has been reached, a tokenizer created from the snapshot returns no tokens.</p>
+     *
+     * @return snapshot
+     *
+     * @see    TokenizerState
+     */
+    public TokenizerState getState()
     {
-        if (!hasNext() && (tIndex > tokens.size()))
+        String content = (currentType != null) ? getCurrentContent() : null;
+
+        // the space that may have been added to the end of the source is not part of the document
+        int sourceOffset = base + sIndex;
+        if (chopEOF && (reader == null) && (sIndex == limit))
         {
-            return Token.EOF;
+            sourceOffset--;
         }
 
-        if (tIndex < tokens.size())
+        return new TokenizerState(zone, delegate, currentType, content, currentLineNumber, sourceOffset, offset, hdOffset, lineNumber,
+                significantOnly, skippedLast, forceEOF, history.snapshot(), lines.copyStarts(lineNumber + 1));
+    }
+
+    /**
+     * @return <code>true</code> if insignificant tokens are skipped, <code>false</code> otherwise
+     *
+     * @see #setSignificantOnly(boolean)
+     */
+    public boolean isSignificantOnly()
+    {
+        return significantOnly;
+    }
+
+    /**
+     * set the factory used to create tokens, by default only the built-in token types are created.
+     *
+     * @param  factory element factory
+     *
+     * @throws IllegalStateException if tokenizing has already started
+     */
+    public void setElementFactory(ElementFactory factory)
+    {
+        if (getSourceIndex() > 0)
         {
-            // the index will be incremeted after the token is fetched
-            return tokens.get(tIndex++);
+            throw new IllegalStateException("tokenizing has already started");
         }
 
-        while (true)
+        this.factory = factory;
+    }
+
+    /**
+     * only hand out significant tokens.
+     *
+     * <p>whitespace, comments, pod and the text after <code>__END__</code> or <code>__DATA__</code> are skipped w/o creating token
+     * objects. the offsets, lines and columns of the remaining tokens are the same as they would be otherwise.</p>
+     *
+     * <p>note: the text after <code>__DATA__</code> is a <code>DataToken</code>, which is significant, but it is omitted along w/ the
+     * <code>EndToken</code> after <code>__END__</code>. the tokens handed out are the significant tokens of a normal run w/o the
+     * <code>DataToken</code>.</p>
+     *
+     * @param  significantOnly <code>true</code> to skip insignificant tokens
+     *
+     * @throws IllegalStateException if tokenizing has already started
+     */
+    public void setSignificantOnly(boolean significantOnly)
+    {
+        if (getSourceIndex() > 0)
         {
-            if (!parseNextLine())
+            throw new IllegalStateException("tokenizing has already started");
+        }
+
+        this.significantOnly = significantOnly;
+    }
+
+    /**
+     * tokenize the rest of the source.
+     *
+     * @return all the tokens that have not already been returned by <code>next()</code>
+     *
+     * @throws TokenizerException if the source can not be tokenized
+     */
+    public List<Token> getTokens() throws TokenizerException
+    {
+        try
+        {
+            while (!finished)
+            {
+                if (!parseNextLine())
+                {
+                    finalizeEOF();
+                }
+            }
+        }
+        catch (SourceReadException e)
+        {
+            throw new TokenizerException(lineNumber, currentLineCol, e.getCause());
+        }
+
+        List<Token> list = new ArrayList<>(tokens);
+        tokens.clear();
+
+        return list;
+    }
+
+    /**
+     * iterate over the tokens that have not already been returned by <code>next()</code>.
+     *
+     * <p>the tokenizer is consumed by the iteration, so it may only be iterated once. <code>hasNext()</code> and <code>next()</code> can
+     * not throw a checked exception, so a source that can not be tokenized surfaces as an <code>UncheckedTokenizerException</code> whose
+     * cause is the <code>TokenizerException</code>.</p>
+     *
+     * @throws UncheckedTokenizerException from the iterator if the source can not be tokenized
+     *
+     * @see    java.lang.Iterable#iterator()
+     */
+    @Override public Iterator<Token> iterator()
+    {
+        return new Iterator<Token>()
             {
-                finalizeEOF();
+                private Token next;
 
-                if (tIndex < tokens.size())
+                @Override public boolean hasNext()
                 {
-                    // the index will be incremeted after the token is fetched
-                    return tokens.get(tIndex++);
+                    if (next == null)
+                    {
+                        try
+                        {
+                            next = Tokenizer.this.next();
+                        }
+                        catch (TokenizerException e)
+                        {
+                            throw new UncheckedTokenizerException(e);
+                        }
+                    }
+
+                    return (next != Token.EOF);
                 }
 
-                break;
+                @Override public Token next()
+                {
+                    if (!hasNext())
+                    {
+                        throw new NoSuchElementException();
+                    }
+
+                    Token token = next;
+                    next = null;
+
+                    return token;
+                }
+
+                @Override public void remove()
+                {
+                    throw new UnsupportedOperationException();
+                }
+            };
+    }
+
+    /**
+     * get the next token.
+     *
+     * @return next token, or <code>Token.EOF</code> once the source has been consumed
+     *
+     * @throws TokenizerException if the source can not be tokenized
+     */
+    public Token next() throws TokenizerException
+    {
+        try
+        {
+            // tokens are handed out as each line completes, but the last one is held until EOF as finalizeEOF may still change it
+            while (!finished && (tokens.size() <= 1))
+            {
+                if (!parseNextLine())
+                {
+                    finalizeEOF();
+                }
             }
         }
+        catch (SourceReadException e)
+        {
+            throw new TokenizerException(lineNumber, currentLineCol, e.getCause());
+        }
 
-        if (tIndex < tokens.size())
+        if (!tokens.isEmpty())
         {
-            // the index will be incremeted after the token is fetched
-            return tokens.get(tIndex++);
+            return tokens.removeFirst();
         }
 
         return Token.EOF;
     }
 
-    protected void appendToCurrentToken(String content)
+    /**
+     * did the source end between tokens, w/o a heredoc, quote, pod block or other multi-line construct left open?
+     *
+     * <p>note: this method is only intended to be used by the <code>SegmentedTokenizer</code> once all tokens have been read.</p>
+     *
+     * @return <code>true</code> if the source ended cleanly, <code>false</code> otherwise
+     */
+    boolean isCleanEOF()
+    {
+        return cleanEOF;
+    }
+
+    /**
+     * record a section of the token being built, it is handed to the token when the token is finalized.
+     *
+     * <p>note: this method is only intended to be used by the <code>ComplexQuoteScanner</code>.</p>
+     *
+     * @param position start index of the section in the token content
+     * @param size size of the section, excluding its close delimiter
+     * @param complete does the section end w/ its close delimiter?
+     * @param open open delimiter, or <code>0</code> if the section has none
+     * @param close close delimiter, or <code>0</code> if the section has none
+     */
+    protected void addSection(int position, int size, boolean complete, char open, char close)
+    {
+        bounds[boundsLength++] = position;
+        bounds[boundsLength++] = size;
+        bounds[boundsLength++] = complete ? 1 : 0;
+        bounds[boundsLength++] = open;
+        bounds[boundsLength++] = close;
+    }
+
+    protected void appendToCurrentToken(CharSequence content)
     {
         appendToCurrentToken(content, false);
     }
 
-    protected void appendToCurrentToken(String content, boolean incCol)
+    protected void appendToCurrentToken(CharSequence content, boolean incCol)
     {
-        current.appendContent(content);
+        if (current != null)
+        {
+            current.appendContent(content);
+        }
+        else
+        {
+            pending.append(content);
+        }
 
         if (incCol)
         {
@@ -151,11 +563,29 @@ public final class Tokenizer
     protected void finalizeToken()
     {
         // no token, nothing to do
-        if (current == null)
+        if (currentType == null)
+        {
+            return;
+        }
+
+        if (significantOnly && SKIPPED.contains(currentType))
         {
+            skipCurrentToken();
             return;
         }
 
+        createCurrentToken(true);
+
+        if ((boundsLength > 2) || (bounds[1] > bounds[0]))
+        {
+            if (current instanceof SectionedToken)
+            {
+                ((SectionedToken) current).setSectionBounds(Arrays.copyOf(bounds, boundsLength));
+            }
+
+            clearBounds();
+        }
+
         current.setStartOffset(offset);
 
         /*
@@ -168,17 +598,26 @@ public final class Tokenizer
         // update the tracked offset
         offset += current.getLength();
 
+        // the parser dispatches on the id, look it up while the content is still a view into the source
+        if (current.isSignificant())
+        {
+            current.getKeywordId();
+        }
+
         // track we saw a heredoc token, we will have to adjust the offset when the next line is processed
         if (current instanceof HereDocToken)
         {
             calcOffsetAfterHereDoc((HereDocToken) current);
         }
 
-        // keep a list of the tokens we've seen to assist w/ decision making later
-        tokens.add(current);
+        // queue the token to be handed out and remember it to assist w/ decision making later
+        tokens.addLast(current);
+        history.add(current);
+        skippedLast = false;
 
         // null out the current token
         current = null;
+        currentType = null;
 
         // reset the current scanner to whatever 'zone' we are in
         delegate = zone;
@@ -191,22 +630,27 @@ public final class Tokenizer
 
     protected int getCurrentCharOfCurrentLine()
     {
-        return currentLine.codePointAt(currentLineCol);
+        return Character.codePointAt(source, lineStart + currentLineCol, lineEnd);
     }
 
     protected String getCurrentContent()
     {
-        if (current == null)
+        if (currentType == null)
         {
             throw new RuntimeException("current == null");
         }
 
-        return current.getContent();
+        return (current != null) ? current.getContent() : pending.toString();
     }
 
-    protected String getCurrentLine()
+    protected int getCurrentContentLength()
     {
-        return currentLine;
+        return (current != null) ? current.getLength() : pending.length();
+    }
+
+    protected CharSequence getCurrentLine()
+    {
+        return new CharArraySequence(source, lineStart, lineEnd);
     }
 
     protected int getCurrentLineCol()
@@ -216,46 +660,35 @@ public final class Tokenizer
 
     protected int getCurrentLineLength()
     {
-        return currentLine.length();
+        return lineEnd - lineStart;
     }
 
     protected Token getCurrentToken()
     {
+        if (currentType != null)
+        {
+            createCurrentToken(false);
+        }
+
         return current;
     }
 
     protected Token getLastSignificantToken()
     {
-        // safe, the token array is guarenteed to have an entry, even if it's the 'NULL' token
-        return getLastSignificantTokens(1)[0];
+        return history.get(0);
     }
 
-    protected Token[] getLastSignificantTokens(int count)
+    /**
+     * get a previous significant token, this does not scan or allocate
+     *
+     * @param  index <code>0</code> for the most recent token, <code>1</code> for the one before it, etc - at most <code>
+     *               TokenHistory.CAPACITY - 1</code>
+     *
+     * @return token, or <code>WhitespaceToken.NULL</code> if there are not enough tokens
+     */
+    protected Token getLastSignificantToken(int index)
     {
-        int index = tokens.size();
-        List<Token> list = new ArrayList<>(count);
-
-        while (index > 0)
-        {
-            Token token = tokens.get(--index);
-
-            if (token.isSignificant())
-            {
-                list.add(token);
-            }
-
-            if (list.size() == count)
-            {
-                break;
-            }
-        }
-
-        for (int i = 0; i < (count - list.size()); i++)
-        {
-            list.add(WhitespaceToken.NULL);
-        }
-
-        return list.toArray(new Token[list.size()]);
+        return history.get(index);
     }
 
     protected Token getLastToken()
@@ -265,7 +698,7 @@ public final class Tokenizer
             return WhitespaceToken.NULL;
         }
 
-        return tokens.get(tokens.size() - 1);
+        return tokens.getLast();
     }
 
     protected String getNextCharacter()
@@ -275,9 +708,26 @@ public final class Tokenizer
 
     protected String getNextCharacter(int offset)
     {
-        // add the offset to the current column to determine where in the string we start
-        int start = ((currentLineCol == -1) ? 0 : currentLineCol) + offset;
-        return currentLine.substring(start, start + 1);
+        char c = getNextChar(offset);
+        return (c < ASCII.length) ? ASCII[c] : String.valueOf(c);
+    }
+
+    protected char getNextChar()
+    {
+        return getNextChar(0);
+    }
+
+    protected char getNextChar(int offset)
+    {
+        // add the offset to the current column to determine where in the line we start
+        int index = lineStart + ((currentLineCol == -1) ? 0 : currentLineCol) + offset;
+
+        if ((index < lineStart) || (index >= lineEnd))
+        {
+            throw new StringIndexOutOfBoundsException(index - lineStart);
+        }
+
+        return source[index];
     }
 
     protected int getOffset()
@@ -285,15 +735,46 @@ public final class Tokenizer
         return offset;
     }
 
-    protected String getRestOfCurrentLine()
+    /**
+     * get a view of the source that has already been read
+     *
+     * <p>the range must start at or after the current line, anything before it may have been discarded.</p>
+     *
+     * @param  start start offset in the document (inclusive)
+     * @param  end end offset in the document (exclusive)
+     *
+     * @return view of the source
+     */
+    protected CharArraySequence getSource(int start, int end)
+    {
+        return new CharArraySequence(source, start - base, end - base);
+    }
+
+    /**
+     * get the document offset of the next unread character of the source
+     *
+     * @return offset
+     */
+    protected int getSourceIndex()
+    {
+        return base + sIndex;
+    }
+
+    protected CharArraySequence getRestOfCurrentLine()
     {
         return getRestOfCurrentLine(0);
     }
 
-    protected String getRestOfCurrentLine(int offset)
+    protected CharArraySequence getRestOfCurrentLine(int offset)
     {
-        int start = (currentLineCol == -1) ? 0 : currentLineCol;
-        return currentLine.substring(start + offset);
+        int start = lineStart + ((currentLineCol == -1) ? 0 : currentLineCol) + offset;
+
+        if ((start < lineStart) || (start > lineEnd))
+        {
+            throw new StringIndexOutOfBoundsException(start - lineStart);
+        }
+
+        return new CharArraySequence(source, start, lineEnd);
     }
 
     protected TokenScanner getScanner()
@@ -303,17 +784,17 @@ public final class Tokenizer
 
     protected boolean hasCurrentLine()
     {
-        return (currentLine != null);
+        return (lineStart != -1);
     }
 
     protected boolean hasCurrentToken()
     {
-        return (current != null);
+        return (currentType != null);
     }
 
     protected boolean hasNext()
     {
-        return (forceEOF || (sIndex < source.length));
+        return (!forceEOF && ((sIndex < limit) || fill()));
     }
 
     protected void incLineColumn()
@@ -328,32 +809,23 @@ public final class Tokenizer
 
     protected boolean isEndOfCurrentLine()
     {
-        return (currentLineCol >= currentLine.length());
+        return (currentLineCol >= (lineEnd - lineStart));
     }
 
-    protected String nextLine()
+    /**
+     * consume the next line of the source without making it the current line
+     *
+     * @return view of the line, empty at the end of the source
+     */
+    protected CharArraySequence nextLine()
     {
-        StringBuffer buffer = new StringBuffer();
-
-        while (hasNext())
-        {
-            // note the index will be incremented
-            char c = source[sIndex++];
-            buffer.append(c);
-
-            if ((c == '\r') || (c == '\n'))
-            {
-                if ((c == '\r') && hasNext() && (source[sIndex] == '\n'))
-                {
-                    buffer.append(source[sIndex++]);
-                }
+        // reading the line may refill the buffer, so track the start as a document offset
+        int start = base + sIndex;
+        int end = nextLineEnd();
 
-                lineNumber++;
-                break;
-            }
-        }
+        truncated |= ((base + end) == start);
 
-        return buffer.toString();
+        return new CharArraySequence(source, start - base, end);
     }
 
     protected boolean prepNextLine(boolean inScan)
@@ -363,23 +835,89 @@ public final class Tokenizer
             if (!inScan)
             {
                 currentLineCol = -1;
-                currentLine = null;
+                lineStart = -1;
+                lineEnd = -1;
             }
             else
             {
                 // when scanning, set the cursor to the end of the line and the rest should cascade out
-                currentLineCol = currentLine.length();
+                currentLineCol = lineEnd - lineStart;
+                truncated = true;
             }
 
             return false;
         }
 
         currentLineCol = -1;
-        currentLine = nextLine();
+        lineStart = sIndex;
+        lineEnd = nextLineEnd();
 
         return true;
     }
 
+    protected void setCurrentContent(String content)
+    {
+        if (current != null)
+        {
+            current.setContent(content);
+        }
+        else
+        {
+            pending.setLength(0);
+            pending.append(content);
+        }
+    }
+
+    /**
+     * record the modifiers of the token being built, it is handed to the token when the token is finalized.
+     *
+     * <p>note: this method is only intended to be used by the <code>ComplexQuoteScanner</code>.</p>
+     *
+     * @param start start index of the modifiers in the token content
+     * @param end end index of the modifiers in the token content
+     */
+    protected void setModifiers(int start, int end)
+    {
+        bounds[0] = start;
+        bounds[1] = end;
+    }
+
+    /**
+     * skip text that has been consumed w/o creating a token, any current token is finalized first.
+     *
+     * <p>note: this method is only intended to be used by the tokenizer when only significant tokens are wanted.</p>
+     *
+     * @param length length of the skipped text
+     */
+    protected void skip(int length)
+    {
+        finalizeToken();
+
+        offset += length;
+        skippedLast = true;
+
+        // the scanner that consumed the text may not have created a token, so it has to be reset here
+        delegate = zone;
+    }
+
+    /**
+     * skip the rest of the source, the remaining lines are still read so the line index is complete.
+     *
+     * <p>note: this method is only intended to be used by the tokenizer when only significant tokens are wanted.</p>
+     */
+    protected void skipToEOF()
+    {
+        finalizeToken();
+
+        currentLineCol = lineEnd - lineStart;
+        skippedLast = true;
+
+        while (hasNext())
+        {
+            nextLineEnd();
+        }
+    }
+
     protected void switchToScanner(Class<? extends Token> clazz)
     {
         delegate = getSwitchTo(clazz);
@@ -387,15 +925,21 @@ public final class Tokenizer
 
     protected void switchToToken(Class<? extends Token> clazz)
     {
-        switchToToken(clazz, current.getContent());
+        if (current != null)
+        {
+            // the token object already exists, move its content back into the pending buffer
+            pending.setLength(0);
+            pending.append(current.getContent());
+        }
+
+        createToken(clazz, null, false);
     }
 
     protected void switchToToken(Class<? extends Token> clazz, String content)
     {
         /*
-         * meh - i don't really like how this is going to cause some object churn, but b/c the tokens can change right up to the point of
-         * being finalized. perl can cheat and just rebless the class to have it change type - we need to create create a new instance
-         * entirely
+         * perl can cheat and just rebless the class to have it change type - the token object is not created until it is needed, so all we
+         * need to do here is change the pending type and content.
          */
         createToken(clazz, content, false);
     }
@@ -415,48 +959,126 @@ public final class Tokenizer
         }
     }
 
-    private void createToken(Class<? extends Token> clazz, String content, boolean finalize)
+    private void clearBounds()
     {
-        if ((current != null) && (current.getClass() == clazz))
+        bounds[0] = 0;
+        bounds[1] = 0;
+        boundsLength = 2;
+    }
+
+    private void createCurrentToken(boolean finalize)
+    {
+        if (current != null)
         {
             return;
         }
 
-        try
+        current = factory.create(currentType);
+        current.setLineNumber(currentLineNumber);
+
+        /*
+         * a finalized token almost always holds the text found at its offset in the source, in which case it can share the source instead
+         * of copying the content out of the pending buffer
+         */
+        if (finalize && isSourceAt(offset - base, pending))
         {
-            // finalize any existing token
-            if (finalize)
-            {
-                finalizeToken();
-            }
+            current.setContent(new CharArraySequence(source, offset - base, (offset - base) + pending.length()));
+        }
+        else
+        {
+            current.setContent(pending.toString());
+        }
+    }
 
-            Token token = clazz.newInstance();
+    /*
+     * a null content keeps whatever is in the pending buffer, used when switching token types
+     */
+    private void createToken(Class<? extends Token> clazz, String content, boolean finalize)
+    {
+        if ((currentType != null) && (currentType == clazz))
+        {
+            return;
+        }
 
-            token.setLineNumber(lineNumber);
+        // finalize any existing token
+        if (finalize)
+        {
+            finalizeToken();
+        }
 
-            if (content != null)
-            {
-                token.setContent(content);
-            }
+        if (content != null)
+        {
+            pending.setLength(0);
+            pending.append(content);
+        }
+        else if (currentType == null)
+        {
+            pending.setLength(0);
+        }
 
-            this.current = token;
+        this.current = null;
+        this.currentLineNumber = lineNumber;
+        this.currentType = clazz;
 
-            switchToScanner(token.getClass());
+        // use the requested type, the factory may have created a custom subclass
+        switchToScanner(clazz);
+    }
+
+    private static boolean isLineStart(String source, int index)
+    {
+        // nothing is read from the end of the source, so it is always a line start
+        if ((index == 0) || (index == source.length()))
+        {
+            return true;
         }
-        catch (InstantiationException e)
+
+        char c = source.charAt(index - 1);
+
+        // a '\r' followed by a '\n' is not a line terminator by itself
+        return ((c == '\n') || ((c == '\r') && ((index == source.length()) || (source.charAt(index) != '\n'))));
+    }
+
+    private boolean isSourceAt(int start, CharSequence content)
+    {
+        int length = content.length();
+
+        if ((start < 0) || ((start + length) > limit))
         {
-            // should never happen...
-            throw new RuntimeException(e);
+            return false;
         }
-        catch (IllegalAccessException e)
+
+        for (int i = 0; i < length; i++)
         {
-            // should never happen...
-            throw new RuntimeException(e);
+            if (source[start + i] != content.charAt(i))
+            {
+                return false;
+            }
         }
+
+        return true;
+    }
+
+    /*
+     * the content of a skipped token is never turned into an object, only its length is needed to keep the offsets in step
+     */
+    private void skipCurrentToken()
+    {
+        offset += getCurrentContentLength();
+        skippedLast = true;
+
+        pending.setLength(0);
+        clearBounds();
+
+        current = null;
+        currentType = null;
+
+        delegate = zone;
     }
 
     private void finalizeEOF()
     {
+        finished = true;
+
         // finish any partially completed tokens
         finalizeToken();
 
@@ -469,18 +1091,19 @@ public final class Tokenizer
         // find the last token and if it is 'NULL', remove it.
         if (getLastToken().equals(WhitespaceToken.NULL))
         {
-            tokens.remove(tokens.size() - 1);
+            tokens.removeLast();
         }
 
         Token last = getLastToken();
         String content = last.getContent();
 
-        if (chopEOF && content.endsWith(" "))
+        // the trailing space belongs to the last finalized token, which may have been skipped
+        if (chopEOF && !skippedLast && content.endsWith(" "))
         {
             content = content.substring(0, content.length() - 1);
             if ("".equals(content))
             {
-                tokens.remove(tokens.size() - 1);
+                tokens.removeLast();
             }
             else
             {
@@ -489,6 +1112,70 @@ public final class Tokenizer
         }
     }
 
+    /**
+     * read more of the source into the buffer.
+     *
+     * @return <code>true</code> if there is more source to process, <code>false</code> otherwise
+     */
+    private boolean fill()
+    {
+        if (reader == null)
+        {
+            return false;
+        }
+
+        ensureCapacity(1);
+
+        try
+        {
+            int read = reader.read(source, limit, source.length - limit);
+            if (read != -1)
+            {
+                limit += read;
+                return true;
+            }
+
+            close();
+        }
+        catch (IOException e)
+        {
+            throw new SourceReadException(e);
+        }
+
+        prepSourceEnd();
+
+        return (sIndex < limit);
+    }
+
+    /**
+     * make sure there is room for at least <code>count</code> more chars in the buffer, discarding anything before the current line.
+     */
+    private void ensureCapacity(int count)
+    {
+        if ((limit + count) <= source.length)
+        {
+            return;
+        }
+
+        int keep = (lineStart != -1) ? lineStart : sIndex;
+        int size = limit - keep;
+
+        // a new buffer is used so existing views of the old one remain valid
+        char[] chars = new char[Math.max(BUFFER_SIZE, (size + count) * 2)];
+        System.arraycopy(source, keep, chars, 0, size);
+
+        source = chars;
+        base += keep;
+        limit = size;
+        sIndex -= keep;
+
+        if (lineStart != -1)
+        {
+            lineStart -= keep;
+            lineEnd -= keep;
+        }
+    }
+
     private TokenScanner getSwitchTo(Class<? extends Token> clazz)
     {
         if (TokenScanner.SCANNERS.containsKey(clazz))
@@ -499,6 +1186,35 @@ public final class Tokenizer
         return TokenScanner.SCANNERS.get(Token.class);
     }
 
+    /**
+     * advance past the next line of the source.
+     *
+     * @return index of the end of the line (exclusive), including any line terminator
+     */
+    private int nextLineEnd()
+    {
+        // forceEOF may be set while there is source left, so check against the source length directly
+        while ((sIndex < limit) || fill())
+        {
+            // note the index will be incremented
+            char c = source[sIndex++];
+
+            if ((c == '\r') || (c == '\n'))
+            {
+                if ((c == '\r') && ((sIndex < limit) || fill()) && (source[sIndex] == '\n'))
+                {
+                    sIndex++;
+                }
+
+                lineNumber++;
+                lines.addLine(base + sIndex);
+                break;
+            }
+        }
+
+        return sIndex;
+    }
+
     private boolean parseNextLine() throws TokenizerException
     {
         offset += hdOffset;
@@ -506,12 +1222,17 @@ public final class Tokenizer
 
         if (!prepNextLine())
         {
+            cleanEOF = !(forceEOF || truncated) && (currentType == null) && (delegate == zone) &&
+                (zone == getSwitchTo(WhitespaceToken.class));
+
             // EOF, finalize the last token we saw...
             finalizeToken();
             return false;
         }
 
-        if (!delegate.tokenizerOnLineStart(this, currentLine))
+        CharArraySequence line = new CharArraySequence(source, lineStart, lineEnd);
+
+        if (!delegate.tokenizerOnLineStart(this, line))
         {
             while (true)
             {
@@ -523,7 +1244,7 @@ public final class Tokenizer
         }
 
         // trigger any actions that occur when the line has ended
-        delegate.tokenizerOnLineEnd(this, currentLine);
+        delegate.tokenizerOnLineEnd(this, line);
 
         return true;
     }
@@ -533,18 +1254,52 @@ public final class Tokenizer
         return prepNextLine(false);
     }
 
-    private char[] prepSource(String source)
+    /**
+     * called once the end of the source is known - a trailing space is added to the source unless it is empty, already ends in whitespace
+     * or is just a data/end separator. the space is removed again by <code>finalizeEOF</code>.
+     */
+    private void prepSourceEnd()
     {
-        if (SEPARATOR.matcher(source).find() || (source.length() == 0) || TRAILING_WS.matcher(source).find())
+        // the separator pattern has to see the whole source, which is only possible if nothing has been discarded
+        boolean separator = (base == 0) && SEPARATOR.matcher(new CharArraySequence(source, 0, limit)).find();
+
+        // a trailing line terminator is at most 2 chars, so the last 3 chars are enough to check for trailing whitespace
+        int tail = Math.max(0, limit - 3);
+
+        if (separator || ((base + limit) == 0) || TRAILING_WS.matcher(new CharArraySequence(source, tail, limit)).find())
         {
             chopEOF = false;
         }
         else
         {
-            source += " ";
+            ensureCapacity(1);
+            source[limit++] = ' ';
         }
+    }
+
+    private void restore(TokenizerState state)
+    {
+        zone = state.zone;
+        delegate = state.delegate;
+
+        currentType = state.currentType;
+        currentLineNumber = state.currentLineNumber;
 
-        return source.toCharArray();
+        if (state.pending != null)
+        {
+            pending.append(state.pending);
+        }
+
+        offset = state.offset;
+        hdOffset = state.hdOffset;
+        lineNumber = state.lineNumber;
+
+        significantOnly = state.significantOnly;
+        skippedLast = state.skippedLast;
+        forceEOF = state.forceEOF;
+
+        history.restore(state.history, factory);
+        lines.addLines(state.lineStarts);
     }
 
     private boolean processNextChar() throws TokenizerException
@@ -561,7 +1316,7 @@ public final class Tokenizer
             if (!delegate.tokenizerOnChar(this))
             {
                 // TODO: this can probably come out once all the tokens have been mapped
-                if (current == null)
+                if (currentType == null)
                 {
                     throw new RuntimeException("processNextChar() : current == null");
                 }
@@ -570,18 +1325,41 @@ public final class Tokenizer
                  * defined, however we can't (well, i'm not creating a value object for it), so it will be the responsibility of the
                  * scanning delegate to create it for us.
                  */
-                current.appendContent(getNextCharacter());
+                if (current != null)
+                {
+                    current.appendContent(getNextCharacter());
+                }
+                else
+                {
+                    pending.append(getNextChar());
+                }
             }
         }
         catch (Exception e)
         {
             finalizeToken();
 
-            Token token = tokens.remove(tokens.size() - 1);
+            Token token = getLastToken();
 
             throw new TokenizerException(token.getLineNumber(), token.getColumn(), e);
         }
 
         return true;
     }
+
+    //~ Inner Classes
+
+    /**
+     * carries an <code>IOException</code> out of the methods used by the scanners, it is converted to a <code>TokenizerException</code>
+     * when it reaches <code>next()</code> or <code>getTokens()</code>.
+     */
+    private static final class SourceReadException extends RuntimeException
+    {
+        private static final long serialVersionUID = 2871094462958711349L;
+
+        SourceReadException(IOException cause)
+        {
+            super(cause);
+        }
+    }
 }
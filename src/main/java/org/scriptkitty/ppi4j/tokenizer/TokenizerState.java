@@ -0,0 +1,100 @@
+package org.scriptkitty.ppi4j.tokenizer;
+
+import org.scriptkitty.ppi4j.Token;
+
+
+/**
+ * snapshot of a tokenizer taken at the start of a line, a tokenizer created from it carries on from that line.
+ *
+ * <p>the snapshot covers everything the tokenizer needs to read the rest of the source: the zone and scanner it is in, any token that
+ * spans the line start, the offsets and line number, and the recent significant tokens the scanners look back at. tokens that were
+ * already finalized are not part of the snapshot, the new tokenizer returns the tokens from <code>getTokenOffset()</code> onwards.</p>
+ *
+ * <p>the snapshot is immutable and does not refer to the tokenizer it was taken from or to any of its tokens, so it may be restored on
+ * another thread while that tokenizer carries on. the start offsets of the lines before the snapshot and the kind, content and position
+ * of the recent tokens are copied when it is taken.</p>
+ *
+ * @see Tokenizer#getState()
+ */
+public final class TokenizerState
+{
+    //~ Instance fields
+
+    final TokenScanner delegate;
+    final TokenScanner zone;
+
+    final Class<? extends Token> currentType;
+    final int currentLineNumber;
+    final String pending;
+
+    final boolean forceEOF;
+    final boolean significantOnly;
+    final boolean skippedLast;
+
+    final int hdOffset;
+    final int lineNumber;
+    final int offset;
+    final int sourceOffset;
+
+    final TokenHistory.Entry[] history;
+    final int[] lineStarts;
+
+    //~ Constructors
+
+    /*
+     * the tokenizer hands over copies of everything mutable
+     */
+    TokenizerState(TokenScanner zone, TokenScanner delegate, Class<? extends Token> currentType, String pending, int currentLineNumber,
+        int sourceOffset, int offset, int hdOffset, int lineNumber, boolean significantOnly, boolean skippedLast, boolean forceEOF,
+        TokenHistory.Entry[] history, int[] lineStarts)
+    {
+        this.zone = zone;
+        this.delegate = delegate;
+        this.currentType = currentType;
+        this.pending = pending;
+        this.currentLineNumber = currentLineNumber;
+        this.sourceOffset = sourceOffset;
+        this.offset = offset;
+        this.hdOffset = hdOffset;
+        this.lineNumber = lineNumber;
+        this.significantOnly = significantOnly;
+        this.skippedLast = skippedLast;
+        this.forceEOF = forceEOF;
+        this.history = history;
+        this.lineStarts = lineStarts;
+    }
+
+    //~ Methods
+
+    /**
+     * get the number of the line the snapshot was taken at
+     *
+     * @return line number
+     */
+    public int getLineNumber()
+    {
+        return lineNumber + 1;
+    }
+
+    /**
+     * get the offset of the line the snapshot was taken at, a tokenizer created from the snapshot starts reading the source here
+     *
+     * @return offset
+     */
+    public int getSourceOffset()
+    {
+        return sourceOffset;
+    }
+
+    /**
+     * get the start offset of the first token a tokenizer created from the snapshot will return.
+     *
+     * <p>the offset is only before <code>getSourceOffset()</code> if a token spans the line start.</p>
+     *
+     * @return offset
+     */
+    public int getTokenOffset()
+    {
+        return offset + hdOffset;
+    }
+}
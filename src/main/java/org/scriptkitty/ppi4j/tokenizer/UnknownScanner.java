@@ -35,7 +35,7 @@ final class UnknownScanner extends TokenScanner
     @Override protected boolean tokenizerOnChar(Tokenizer tokenizer) throws TokenizingException
     {
         String next = tokenizer.getNextCharacter();
-        String content = tokenizer.getCurrentToken().getContent();
+        String content = tokenizer.getCurrentContent();
 
         boolean consumed = false;
 
@@ -85,7 +85,7 @@ final class UnknownScanner extends TokenScanner
         }
 
         // bitwise-and number, ie: &2
-        if (next.matches("\\d"))
+        if (CharClass.is(next, CharClass.DIGIT))
         {
             tokenizer.switchToToken(OperatorToken.class);
             tokenizer.finalizeToken();
@@ -107,7 +107,7 @@ final class UnknownScanner extends TokenScanner
     private boolean handleAstrix(Tokenizer tokenizer, String next) throws TokenizingException
     {
         // symbol...
-        if (next.matches("(?:(?!\\d)\\w|\\:)"))
+        if (CharClass.is(next, CharClass.ALPHA | CharClass.UNDERSCORE | CharClass.COLON))
         {
             // unless the previous token is a number, which would make us an operator
             Token prev = tokenizer.getLastSignificantToken();
@@ -246,7 +246,7 @@ final class UnknownScanner extends TokenScanner
          * PPI has a 'Token::DashedWord' but according to the docs, it is not used and any tokens meeting this criteria are treated as a
          * 'Token::Word' instead (w/ the exception of file test operators, ie: -e), so ppi4j will just handle the logic here.
          */
-        if (next.matches("[a-zA-Z]"))
+        if (CharClass.is(next, CharClass.ALPHA))
         {
             Matcher matcher = Pattern.compile("(\\w+)").matcher(tokenizer.getRestOfCurrentLine());
             if (matcher.find())
@@ -255,7 +255,7 @@ final class UnknownScanner extends TokenScanner
             }
 
             // check for file test operators
-            if (tokenizer.getCurrentToken().getContent().matches("^\\-[rwxoRWXOezsfdlpSbctugkTBMAC]$"))
+            if (tokenizer.getCurrentContent().matches("^\\-[rwxoRWXOezsfdlpSbctugkTBMAC]$"))
             {
                 tokenizer.switchToToken(OperatorToken.class);
             }
@@ -278,7 +278,7 @@ final class UnknownScanner extends TokenScanner
     private boolean handleDollar(Tokenizer tokenizer, String content, String next) throws TokenizingException
     {
         // symbol
-        if (next.matches("[a-zA-Z_]"))
+        if (CharClass.is(next, CharClass.ALPHA | CharClass.UNDERSCORE))
         {
             tokenizer.switchToToken(SymbolToken.class);
             return false;
@@ -353,26 +353,27 @@ final class UnknownScanner extends TokenScanner
 
     private boolean haveSeenAttrIndicator(Tokenizer tokenizer)
     {
-        Token[] previous = tokenizer.getLastSignificantTokens(3);
+        Token prev = tokenizer.getLastSignificantToken();
 
         // if we just saw an attribute or prototype, we're an attribute
-        if ((previous[0] instanceof AttributeToken) || (previous[0] instanceof PrototypeToken))
+        if ((prev instanceof AttributeToken) || (prev instanceof PrototypeToken))
         {
             return true;
         }
 
         // now we need a bareword...
-        if (previous[0] instanceof WordToken)
+        if (prev instanceof WordToken)
         {
             // anonymous subroutine...
-            if (ElementUtils.isSubWordToken(previous[0]))
+            if (ElementUtils.isSubWordToken(prev))
             {
                 return true;
             }
 
             // named subroutine...
-            if (ElementUtils.isSubWordToken(previous[1]) &&
-                    ((previous[2] instanceof StructureToken) || ElementUtils.isEmptyWhitespace(previous[2])))
+            Token before = tokenizer.getLastSignificantToken(2);
+            if (ElementUtils.isSubWordToken(tokenizer.getLastSignificantToken(1)) &&
+                    ((before instanceof StructureToken) || ElementUtils.isEmptyWhitespace(before)))
             {
                 return true;
             }
@@ -388,17 +389,17 @@ final class UnknownScanner extends TokenScanner
 
     private boolean matchesCast(String line)
     {
-        return line.matches("[\\$@%{]");
+        return CharClass.is(line, CharClass.CAST);
     }
 
     private boolean matchesNumber(String line)
     {
-        return line.matches("\\d");
+        return CharClass.is(line, CharClass.DIGIT);
     }
 
     private boolean matchesSymbol(String line)
     {
-        return line.matches("[\\w:]");
+        return CharClass.is(line, CharClass.WORD | CharClass.COLON);
     }
 
     private boolean restMatchesControlChar(Tokenizer tokenizer)
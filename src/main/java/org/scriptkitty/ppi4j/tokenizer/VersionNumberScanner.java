@@ -1,8 +1,5 @@
 package org.scriptkitty.ppi4j.tokenizer;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 import org.scriptkitty.ppi4j.Token;
 import org.scriptkitty.ppi4j.exception.TokenizingException;
 import org.scriptkitty.ppi4j.token.OperatorToken;
@@ -18,11 +15,6 @@ import org.scriptkitty.ppi4j.util.ElementUtils;
  */
 final class VersionNumberScanner extends TokenScanner
 {
-    //~ Static fields/initializers
-
-    /** version string pattern - <code>/^(v\d+(?:\.\d+)*)/</code> */
-    private static final Pattern VSTRING = Pattern.compile("^(v\\d+(?:\\.\\d+)*)");
-
     //~ Methods
 
     /*
@@ -35,11 +27,12 @@ final class VersionNumberScanner extends TokenScanner
         // if the previous token is a subroutine or package, we're not a version number
         if (!(ElementUtils.isSubWordToken(prev) || ElementUtils.isPackageWordToken(prev)))
         {
-            Matcher matcher = VSTRING.matcher(tokenizer.getRestOfCurrentLine());
-            if (matcher.find())
+            CharSequence rest = tokenizer.getRestOfCurrentLine();
+            int end = Matchers.vstring(rest);
+            if (end != -1)
             {
                 tokenizer.createToken(VersionNumberToken.class);
-                tokenizer.appendToCurrentToken(matcher.group(1), true);
+                tokenizer.appendToCurrentToken(rest.subSequence(0, end), true);
 
                 tokenizer.finalizeToken();
                 return tokenizer.getScanner().tokenizerOnChar(tokenizer);
@@ -73,7 +66,7 @@ final class VersionNumberScanner extends TokenScanner
             if (content.endsWith("."))
             {
                 // chop off the '.'
-                tokenizer.getCurrentToken().setContent(content.substring(0, content.length() - 1));
+                tokenizer.setCurrentContent(content.substring(0, content.length() - 1));
                 // create an operator token
                 tokenizer.createToken(OperatorToken.class, "..");
                 return true;
@@ -1,10 +1,7 @@
 package org.scriptkitty.ppi4j.tokenizer;
 
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.scriptkitty.ppi4j.Token;
@@ -39,29 +36,8 @@ final class WhitespaceScanner extends TokenScanner
 {
     //~ Static fields/initializers
 
-    /** comment pattern - <code>/^\s*#/</code> */
-    private static final Pattern COMMENT = Pattern.compile("^\\s*#");
-
     private static final Pattern READLINE = Pattern.compile("^<(?!\\d)\\w+>");
 
-    private static final Map<Integer, Class<? extends Token>> COMMIT = new HashMap<Integer, Class<? extends Token>>()
-    {
-        private static final long serialVersionUID = 4421796814489362729L;
-
-        {
-            put(Integer.valueOf(';'), StructureToken.class);
-            put(Integer.valueOf('['), StructureToken.class);
-            put(Integer.valueOf(']'), StructureToken.class);
-            put(Integer.valueOf('{'), StructureToken.class);
-            put(Integer.valueOf('}'), StructureToken.class);
-            // note '(' is missing here, handled separately...
-            put(Integer.valueOf(')'), StructureToken.class);
-            put(Integer.valueOf('#'), CommentToken.class);
-            put(Integer.valueOf('v'), VersionNumberToken.class);
-            put(Integer.valueOf('_'), WordToken.class);
-        }
-    };
-
     private static final Set<Class<? extends Token>> OPERATOR_CONTEXT = new HashSet<Class<? extends Token>>()
     {
         private static final long serialVersionUID = 1L;
@@ -83,43 +59,54 @@ final class WhitespaceScanner extends TokenScanner
         }
     };
 
-    private static final Map<Integer, Class<? extends Token>> MAP = new HashMap<Integer, Class<? extends Token>>()
-    {
-        private static final long serialVersionUID = 9019741478003051844L;
+    //J-
+    /* dispatch actions for ascii characters, see 'tokenizerOnChar' - unmapped characters are unknown */
+    private static final byte COMMIT = 1;
+    private static final byte CREATE = 2;
+    private static final byte OPEN_PAREN = 3;
+    private static final byte OPEN_ANGLE = 4;
+    private static final byte FORWARD_SLASH = 5;
+    private static final byte X = 6;
+    private static final byte DASH = 7;
+    //J+
 
-        {
-            put(Integer.valueOf('\\'), CastToken.class);
-            put(Integer.valueOf('"'), DoubleQuoteToken.class);
-            put(Integer.valueOf('='), OperatorToken.class);
-            put(Integer.valueOf('?'), OperatorToken.class);
-            put(Integer.valueOf('|'), OperatorToken.class);
-            put(Integer.valueOf('+'), OperatorToken.class);
-            put(Integer.valueOf('>'), OperatorToken.class);
-            put(Integer.valueOf('.'), OperatorToken.class);
-            put(Integer.valueOf('!'), OperatorToken.class);
-            put(Integer.valueOf('~'), OperatorToken.class);
-            put(Integer.valueOf('^'), OperatorToken.class);
-            put(Integer.valueOf(','), OperatorToken.class);
-            put(Integer.valueOf('\''), SingleQuoteToken.class);
-            put(Integer.valueOf('`'), QLBacktickToken.class);
-            put(Integer.valueOf('*'), UnknownToken.class);
-            put(Integer.valueOf('$'), UnknownToken.class);
-            put(Integer.valueOf('@'), UnknownToken.class);
-            put(Integer.valueOf('&'), UnknownToken.class);
-            put(Integer.valueOf(':'), UnknownToken.class);
-            put(Integer.valueOf('%'), UnknownToken.class);
-            put(Integer.valueOf('_'), WordToken.class);
-
-            // 9 = '\t', 10 = '\n'. 13 = '\r', 32 = ' '
-            put(9, WhitespaceToken.class);
-            put(10, WhitespaceToken.class);
-            put(13, WhitespaceToken.class);
-            put(32, WhitespaceToken.class);
-        }
-    };
+    private static final byte[] ACTIONS = new byte[128];
 
-    /** 'use' perl v6 pattern - <code>/^use v6\-alpha\;/</code> */
-    private static final Pattern PERL6 = Pattern.compile("^use v6\\-alpha\\;");
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static final Class<? extends Token>[] TOKENS = new Class[128];
+
+    static
+    {
+        // letters are the start of a word, 'v' may be a version number and 'x' is handled separately
+        for (char c = 'a'; c <= 'z'; c++)
+        {
+            dispatch(COMMIT, WordToken.class, c + String.valueOf(Character.toUpperCase(c)));
+        }
+
+        dispatch(COMMIT, StructureToken.class, ";[]{})");
+        dispatch(COMMIT, CommentToken.class, "#");
+        dispatch(COMMIT, VersionNumberToken.class, "v");
+        dispatch(COMMIT, WordToken.class, "_");
+
+        // note '(' is missing here, handled separately...
+        dispatch(CREATE, NumberToken.class, "0123456789");
+        dispatch(CREATE, CastToken.class, "\\");
+        dispatch(CREATE, DoubleQuoteToken.class, "\"");
+        dispatch(CREATE, OperatorToken.class, "=?|+>.!~^,");
+        dispatch(CREATE, SingleQuoteToken.class, "'");
+        dispatch(CREATE, QLBacktickToken.class, "`");
+        dispatch(CREATE, UnknownToken.class, "*$@&:%");
+        dispatch(CREATE, WhitespaceToken.class, "\t\n\r ");
+
+        dispatch(OPEN_PAREN, null, "(");
+        dispatch(OPEN_ANGLE, null, "<");
+        dispatch(FORWARD_SLASH, null, "/");
+        dispatch(X, null, "x");
+        dispatch(DASH, null, "-");
+    }
+
+    /** 'use' perl v6 - <code>/^use v6\-alpha\;/</code> */
+    private static final String PERL6 = "use v6-alpha;";
 
     /** set of words (functions and keywords) that will almost certainly be a regexp if they follow a '/'. */
     private static final Set<String> REGEXP_WORDS = new HashSet<String>()
@@ -135,9 +122,6 @@ final class WhitespaceScanner extends TokenScanner
         }
     };
 
-    /** whitespace pattern - <code>/^\s*$/</code> */
-    private static final Pattern WHITESPACE = Pattern.compile("^\\s*$");
-
     //~ Methods
 
     /*
@@ -152,130 +136,121 @@ final class WhitespaceScanner extends TokenScanner
 
         int c = tokenizer.getCurrentCharOfCurrentLine();
 
-        if (isCommit(c))
-        {
-            switchScannerForCommit(tokenizer, c);
-            return tokenizer.getScanner().tokenizerCommit(tokenizer);
-        }
-
-        if (isClassMap(c))
-        {
-            /*
-             * meh - PPI creates the token after '__TOKENIZER__on_char' completes (in Tokenizer::_process_next_char), but we need to do it
-             * here b/c there is no way to signal what type of token should be created.
-             *
-             * upon further reflection, i guess i could have just set the class to create as state on the tokenizer, but meh...
-             */
-            createClassToken(tokenizer, c);
-            return false;
-        }
-
-        if (MAP.containsKey(c))
+        if (c < 128)
         {
-
-            tokenizer.createToken(MAP.get(c));
-            return false;
+            switch (ACTIONS[c])
+            {
+                case COMMIT:
+                {
+                    tokenizer.switchToScanner(TOKENS[c]);
+                    return tokenizer.getScanner().tokenizerCommit(tokenizer);
+                }
+                case CREATE:
+                {
+                    /*
+                     * meh - PPI creates the token after '__TOKENIZER__on_char' completes (in Tokenizer::_process_next_char), but we need to
+                     * do it here b/c there is no way to signal what type of token should be created.
+                     *
+                     * upon further reflection, i guess i could have just set the class to create as state on the tokenizer, but meh...
+                     */
+                    tokenizer.createToken(TOKENS[c]);
+                    return false;
+                }
+                case OPEN_PAREN:
+                {
+                    handleOpenParen(tokenizer);
+                    return false;
+                }
+                case OPEN_ANGLE:
+                {
+                    handleOpenAngle(tokenizer);
+                    return false;
+                }
+                case FORWARD_SLASH:
+                {
+                    handleForwardSlash(tokenizer);
+                    return false;
+                }
+                case X:
+                {
+                    // 'x' is 'special case, as it also represents a letter and could be consumed
+                    return handleX(tokenizer);
+                }
+                case DASH:
+                {
+                    handleDash(tokenizer);
+                    return false;
+                }
+                default:
+                {
+                    break;
+                }
+            }
         }
-
-        // '(' = 40
-        if (c == 40)
+        // outside ascii
+        else if (Character.isLetter(c))
         {
-            handleOpenParen(tokenizer);
-            return false;
-        }
-
-        // '<' = 60
-        if (c == 60)
-        {
-            handleOpenAngle(tokenizer);
-            return false;
+            tokenizer.switchToScanner(WordToken.class);
+            return tokenizer.getScanner().tokenizerCommit(tokenizer);
         }
-
-        // '/' = 47
-        if (c == 47)
+        else if (Character.isDigit(c))
         {
-            handleForwardSlash(tokenizer);
+            tokenizer.createToken(NumberToken.class);
             return false;
         }
-
-        // 'x' = 120
-        if (c == 120)
+        else if (Character.isWhitespace(c))
         {
-            // 'x' is 'special case, as it also represents a letter and could be consumed
-            return handleX(tokenizer);
-        }
-
-        // '-' = 45
-        if (c == 45)
-        {
-            handleDash(tokenizer);
+            tokenizer.createToken(WhitespaceToken.class);
             return false;
         }
 
-        // >= 128 outside ascii
-        if (c >= 128)
-        {
-            if (Character.isWhitespace(c))
-            {
-                tokenizer.createToken(WhitespaceToken.class);
-                return false;
-            }
-
-            if (Character.isLetterOrDigit(c))
-            {
-                tokenizer.switchToScanner(WordToken.class);
-                return tokenizer.getScanner().tokenizerOnChar(tokenizer);
-
-            }
-        }
-
         throw new TokenizingException("encountered unknown character [" + (char) c + "]");
     }
 
     /*
-     * @see org.scriptkitty.ppi4j.tokenizer.TokenScanner#tokenizerOnLineEnd(org.scriptkitty.ppi4j.tokenizer.Tokenizer, java.lang.String)
+     * @see org.scriptkitty.ppi4j.tokenizer.TokenScanner#tokenizerOnLineEnd(org.scriptkitty.ppi4j.tokenizer.Tokenizer, java.lang.CharSequence)
      */
-    @Override protected void tokenizerOnLineEnd(Tokenizer tokenizer, String line)
+    @Override protected void tokenizerOnLineEnd(Tokenizer tokenizer, CharSequence line)
     {
         tokenizer.finalizeToken();
     }
 
     /*
-     * @see org.scriptkitty.ppi4j.tokenizer.TokenScanner#tokenizerOnLineStart(org.scriptkitty.ppi4j.tokenizer.Tokenizer, java.lang.String)
+     * @see org.scriptkitty.ppi4j.tokenizer.TokenScanner#tokenizerOnLineStart(org.scriptkitty.ppi4j.tokenizer.Tokenizer, java.lang.CharSequence)
      */
-    @Override protected boolean tokenizerOnLineStart(Tokenizer tokenizer, String line)
+    @Override protected boolean tokenizerOnLineStart(Tokenizer tokenizer, CharSequence line)
     {
-        Matcher matcher = WHITESPACE.matcher(line);
-
-        if (matcher.find())
+        // blank and comment lines are skipped whole
+        if (tokenizer.isSignificantOnly() && (Matchers.isWhitespace(line) || Matchers.isComment(line)))
         {
-            tokenizer.createToken(WhitespaceToken.class, line);
+            tokenizer.skip(line.length());
             return true;
         }
 
-        matcher.reset();
-        matcher.usePattern(COMMENT);
+        // whitespace - /^\s*$/
+        if (Matchers.isWhitespace(line))
+        {
+            tokenizer.createToken(WhitespaceToken.class, line.toString());
+            return true;
+        }
 
-        if (matcher.find())
+        // comment - /^\s*#/
+        if (Matchers.isComment(line))
         {
-            tokenizer.createToken(CommentToken.class, line);
+            tokenizer.createToken(CommentToken.class, line.toString());
             tokenizer.finalizeToken();
             return true;
         }
 
-        matcher.reset();
-        matcher.usePattern(PodScanner.POD);
+        int end = Matchers.pod(line);
 
-        if (matcher.find())
+        if (end != -1)
         {
-            tokenizeMatchedPodLine(tokenizer, line, matcher);
+            tokenizeMatchedPodLine(tokenizer, line, end);
             return true;
         }
 
-        matcher.reset();
-        matcher.usePattern(PERL6);
-
-        if (matcher.find())
+        if (Matchers.startsWith(line, PERL6))
         {
             /*
              * currently PPI just sucks all the lines after the 'use' statement into an array, but does nothing w/ them after the fact.
@@ -288,15 +263,13 @@ final class WhitespaceScanner extends TokenScanner
         return false;
     }
 
-    private void createClassToken(Tokenizer tokenizer, int c)
+    private static void dispatch(byte action, Class<? extends Token> clazz, String chars)
     {
-        if (Character.isDigit(c))
+        for (char c : chars.toCharArray())
         {
-            tokenizer.createToken(NumberToken.class);
-            return;
+            ACTIONS[c] = action;
+            TOKENS[c] = clazz;
         }
-
-        tokenizer.createToken(MAP.get(c));
     }
 
     private void handleDash(Tokenizer tokenizer)
@@ -366,7 +339,7 @@ final class WhitespaceScanner extends TokenScanner
         /*
          * check char after slash, there are some things that would be highly illogic to see if it's an operator, so we assume it's a regexp
          */
-        if (!tokenizer.isEndOfCurrentLine() && tokenizer.getNextCharacter().matches("(?:\\^|\\[|\\\\)"))
+        if (!tokenizer.isEndOfCurrentLine() && isRegexpStart(tokenizer.getNextChar()))
         {
             tokenizer.createToken(REMatchToken.class);
             return;
@@ -447,31 +420,29 @@ final class WhitespaceScanner extends TokenScanner
     {
         tokenizer.finalizeToken();
 
-        Token[] previous = tokenizer.getLastSignificantTokens(3);
+        Token prev = tokenizer.getLastSignificantToken();
 
-        if (previous.length > 0)
+        //J-
+        /*
+         * prototype if:
+         *   - token[0] is a bareword
+         *   - token[1] is the 'sub' keyword
+         *   - token[2] is a structure or empty whitespace
+         */
+        //J+
+        if ((prev instanceof WordToken) && ElementUtils.isSubWordToken(tokenizer.getLastSignificantToken(1)) &&
+                ((tokenizer.getLastSignificantToken(2) instanceof StructureToken) ||
+                    ElementUtils.isEmptyWhitespace(tokenizer.getLastSignificantToken(2))))
         {
-            //J-
-            /*
-             * prototype if:
-             *   - token[0] is a bareword
-             *   - token[1] is the 'sub' keyword
-             *   - token[2] is a structure or empty whitespace
-             */
-            //J+
-            if ((previous[0] instanceof WordToken) && ElementUtils.isSubWordToken(previous[1]) &&
-                    ((previous[2] instanceof StructureToken) || ElementUtils.isEmptyWhitespace(previous[2])))
-            {
-                tokenizer.createToken(PrototypeToken.class);
-                return;
-            }
+            tokenizer.createToken(PrototypeToken.class);
+            return;
+        }
 
-            // prototyped anonymous subroutine
-            if (ElementUtils.isSubWordToken(previous[0]) && !ElementUtils.isDashArrowOperatorToken(previous[1]))
-            {
-                tokenizer.createToken(PrototypeToken.class);
-                return;
-            }
+        // prototyped anonymous subroutine
+        if (ElementUtils.isSubWordToken(prev) && !ElementUtils.isDashArrowOperatorToken(tokenizer.getLastSignificantToken(1)))
+        {
+            tokenizer.createToken(PrototypeToken.class);
+            return;
         }
 
         tokenizer.createToken(StructureToken.class);
@@ -482,7 +453,7 @@ final class WhitespaceScanner extends TokenScanner
         if (!tokenizer.isEndOfCurrentLine())
         {
             Token prev = tokenizer.getLastSignificantToken();
-            String next = tokenizer.getNextCharacter();
+            char next = tokenizer.getNextChar();
 
             //J-
             /*
@@ -499,7 +470,7 @@ final class WhitespaceScanner extends TokenScanner
              * this is applicable for...
              */
             //J+
-            if (next.matches("\\d") && ((prev instanceof SingleQuoteToken) || (prev instanceof DoubleQuoteToken)))
+            if (CharClass.is(next, CharClass.DIGIT) && ((prev instanceof SingleQuoteToken) || (prev instanceof DoubleQuoteToken)))
             {
                 tokenizer.createToken(OperatorToken.class);
                 return false;
@@ -510,26 +481,8 @@ final class WhitespaceScanner extends TokenScanner
         return tokenizer.getScanner().tokenizerCommit(tokenizer);
     }
 
-    private boolean isClassMap(int c)
+    private boolean isRegexpStart(char c)
     {
-        return (MAP.containsKey(c) || Character.isDigit(c));
-    }
-
-    private boolean isCommit(int c)
-    {
-        // 'x' = 118 - 'v' == 120
-        return (COMMIT.containsKey(c) || (Character.isLetter(c) && !((c == 118) || (c == 120))));
-    }
-
-    private void switchScannerForCommit(Tokenizer tokenizer, int c)
-    {
-        if (COMMIT.containsKey(c))
-        {
-            tokenizer.switchToScanner(COMMIT.get(c));
-            return;
-        }
-
-        // don't need to check for 'x' or 'y' here b/c 'isCommit' prevents those chars
-        tokenizer.switchToScanner(WordToken.class);
+        return ((c == '^') || (c == '[') || (c == '\\'));
     }
 }
@@ -38,16 +38,6 @@ final class WordScanner extends TokenScanner
 
     private static final String END_SEPARATOR = "__END__";
 
-    private static final Pattern LABEL = Pattern.compile("^(\\s*:)(?!:)");
-
-    private static final Pattern WORD = Pattern.compile("^((?!\\d)\\w+(?:(?:'|::)\\w+)*(?:::)?)");
-
-    private static final Pattern WORD_S = Pattern.compile("^(\\w+)'");
-
-    private static final Pattern WS_CLOSE_CURLY = Pattern.compile("^\\s*\\}");
-
-    private static final Pattern WS_EQ_ARROW = Pattern.compile("^\\s*=>");
-
     private static final Pattern NEWLINE = Pattern.compile("(.*)?(\r*\n|\r)");
 
     private static final Set<String> BACKOFF = new HashSet<String>()
@@ -84,7 +74,7 @@ final class WordScanner extends TokenScanner
 
     @Override protected boolean tokenizerCommit(Tokenizer tokenizer) throws TokenizingException
     {
-        String line = tokenizer.getRestOfCurrentLine();
+        CharSequence line = tokenizer.getRestOfCurrentLine();
 
         String word = matchWord(line);
         tokenizer.incLineColumn(word.length());
@@ -132,7 +122,7 @@ final class WordScanner extends TokenScanner
 
     @Override protected boolean tokenizerOnChar(Tokenizer tokenizer) throws TokenizingException
     {
-        String line = tokenizer.getRestOfCurrentLine();
+        CharSequence line = tokenizer.getRestOfCurrentLine();
 
         String word = matchWord(line);
         tokenizer.appendToCurrentToken(word, true);
@@ -144,7 +134,7 @@ final class WordScanner extends TokenScanner
             return tokenizer.getScanner().tokenizerCommit(tokenizer);
         }
 
-        String content = tokenizer.getCurrentToken().getContent();
+        String content = tokenizer.getCurrentContent();
 
         // check for quote-like operator...
         if (QUOTELIKE.containsKey(content) && !isLiteral(tokenizer, content))
@@ -205,8 +195,11 @@ final class WordScanner extends TokenScanner
         }
 
         // if the next char is a ':', then we're a label
-        Matcher matcher = LABEL.matcher(tokenizer.getRestOfCurrentLine());
-        if (matcher.find())
+        CharSequence rest = tokenizer.getRestOfCurrentLine();
+        int end = Matchers.afterWhitespace(rest, ":");
+
+        // label - /^(\s*:)(?!:)/
+        if ((end != -1) && !Matchers.startsWith(rest, end, ":"))
         {
             /*
              * unless it's after 'sub', in which case it's a sub name and an attribute operator
@@ -221,7 +214,7 @@ final class WordScanner extends TokenScanner
             }
 
             tokenizer.createToken(LabelToken.class, word);
-            tokenizer.appendToCurrentToken(matcher.group(1), true);
+            tokenizer.appendToCurrentToken(rest.subSequence(0, end), true);
             return;
         }
 
@@ -237,7 +230,7 @@ final class WordScanner extends TokenScanner
     private boolean isLiteral(Tokenizer tokenizer, String content)
     {
         Token prev = tokenizer.getLastSignificantToken();
-        String rest = tokenizer.getRestOfCurrentLine();
+        CharSequence rest = tokenizer.getRestOfCurrentLine();
 
         // forced if method name or subroutine name...
         if (ElementUtils.isDashArrowOperatorToken(prev) || ElementUtils.isSubWordToken(prev))
@@ -246,13 +239,13 @@ final class WordScanner extends TokenScanner
         }
 
         // if sandwiched btwn { }, probably a bareword hash key
-        if ("{".equals(content) && WS_CLOSE_CURLY.matcher(rest).find())
+        if ("{".equals(content) && (Matchers.afterWhitespace(rest, "}") != -1))
         {
             return true;
         }
 
         // if the word is followed by a '=>', it's probably a word and not a regexp
-        if (WS_EQ_ARROW.matcher(rest).find())
+        if (Matchers.afterWhitespace(rest, "=>") != -1)
         {
             return true;
         }
@@ -265,27 +258,29 @@ final class WordScanner extends TokenScanner
         return tokenizer.getLastSignificantToken().hasAttribute(Token.Attribute.HINT);
     }
 
-    private String matchWord(String line)
+    private String matchWord(CharSequence line)
     {
-        Matcher matcher = WORD.matcher(line);
-        if (!matcher.find())
+        int end = Matchers.word(line);
+        if (end == -1)
         {
             return "";
         }
 
-        String word = matcher.group(1);
-
         /*
          * special case: eq'foo could be treated like the word "eq'foo", so just unwind and make it "eq" or one of the other entries in the
          * BACKOFF set.
          */
-        matcher = WORD_S.matcher(word);
-        if (matcher.find() && BACKOFF.contains(matcher.group(1)))
+        int quote = Matchers.wordChars(line);
+        if ((quote < end) && (line.charAt(quote) == '\''))
         {
-            word = matcher.group(1);
+            String word = line.subSequence(0, quote).toString();
+            if (BACKOFF.contains(word))
+            {
+                return word;
+            }
         }
 
-        return word;
+        return line.subSequence(0, end).toString();
     }
 
     private void processSeparator(Tokenizer tokenizer, String word, Class<? extends Token> clazz)
@@ -294,6 +289,13 @@ final class WordScanner extends TokenScanner
         tokenizer.createToken(SeparatorToken.class, word);
         tokenizer.finalizeToken();
 
+        // nothing after the separator is significant
+        if (tokenizer.isSignificantOnly())
+        {
+            tokenizer.skipToEOF();
+            return;
+        }
+
         // switch the parsing zone...
         tokenizer.switchToZone(clazz);
 
@@ -305,7 +307,7 @@ final class WordScanner extends TokenScanner
         /*
          * anything immediately following the separator is converted into a comment, followed by a whitespace (newline) if it exists.
          */
-        String line = tokenizer.getRestOfCurrentLine();
+        CharSequence line = tokenizer.getRestOfCurrentLine();
         tokenizer.incLineColumn(line.length());
 
         Matcher matcher = NEWLINE.matcher(line);
@@ -323,7 +325,7 @@ final class WordScanner extends TokenScanner
         }
         else
         {
-            tokenizer.createToken(CommentToken.class, line);
+            tokenizer.createToken(CommentToken.class, line.toString());
         }
 
         tokenizer.finalizeToken();
@@ -0,0 +1,95 @@
+package org.scriptkitty.ppi4j.util;
+
+/**
+ * a read-only <code>CharSequence</code> view over a range of a <code>char</code> array.
+ *
+ * <p>no characters are copied until <code>toString()</code> is called, so views may be handed to regular expressions and other
+ * <code>CharSequence</code> consumers without allocating a new string.</p>
+ */
+public final class CharArraySequence implements CharSequence
+{
+    //~ Instance fields
+
+    private final int end;
+
+    private final int start;
+
+    private final char[] chars;
+
+    //~ Constructors
+
+    /**
+     * create a new view
+     *
+     * @param chars backing array, not copied
+     * @param start start index (inclusive)
+     * @param end end index (exclusive)
+     */
+    public CharArraySequence(char[] chars, int start, int end)
+    {
+        if ((start < 0) || (end > chars.length) || (start > end))
+        {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + chars.length);
+        }
+
+        this.chars = chars;
+        this.start = start;
+        this.end = end;
+    }
+
+    //~ Methods
+
+    /*
+     * @see java.lang.CharSequence#charAt(int)
+     */
+    @Override public char charAt(int index)
+    {
+        if ((index < 0) || (index >= (end - start)))
+        {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length());
+        }
+
+        return chars[start + index];
+    }
+
+    /**
+     * does this sequence end with the given character?
+     *
+     * @param  c character
+     *
+     * @return <code>true</code> if the last character matches, <code>false</code> otherwise
+     */
+    public boolean endsWith(char c)
+    {
+        return ((end > start) && (chars[end - 1] == c));
+    }
+
+    /*
+     * @see java.lang.CharSequence#length()
+     */
+    @Override public int length()
+    {
+        return end - start;
+    }
+
+    /*
+     * @see java.lang.CharSequence#subSequence(int, int)
+     */
+    @Override public CharArraySequence subSequence(int from, int to)
+    {
+        if ((from < 0) || (to > length()) || (from > to))
+        {
+            throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", length: " + length());
+        }
+
+        return new CharArraySequence(chars, start + from, start + to);
+    }
+
+    /*
+     * @see java.lang.Object#toString()
+     */
+    @Override public String toString()
+    {
+        return new String(chars, start, end - start);
+    }
+}
@@ -0,0 +1,366 @@
+package org.scriptkitty.ppi4j.util;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.util.Arrays;
+
+
+/**
+ * a <code>Reader</code> that decodes a memory-mapped file on demand.
+ *
+ * <p>bytes are decoded straight from the mapped file into the caller's buffer as they are read, so the file is never copied into the heap
+ * as a whole. <code>US-ASCII</code>, <code>ISO-8859-1</code> and <code>UTF-8</code> are supported - ascii and latin-1 map one byte to one
+ * char and utf-8 has an inline fast path for ascii runs.</p>
+ *
+ * <p>malformed utf-8 is decoded the same way <code>new String(bytes, UTF_8)</code> decodes it, each maximal invalid subpart becomes a single
+ * replacement char.</p>
+ *
+ * <p>the reader records where the number of bytes per char changes so a char offset, such as <code>Token.getStartOffset()</code>, can be
+ * mapped back to a byte position in the file with <code>getByteOffset(int)</code>.</p>
+ *
+ * <pre>
+ *   MappedFileReader reader = MappedFileReader.open(path, StandardCharsets.UTF_8);
+ *   Document document = ParserFactory.createParser(new DefaultTokenProvider(reader)).parse();
+ * </pre>
+ */
+public final class MappedFileReader extends Reader
+{
+    //~ Static fields/initializers
+
+    private static final char REPLACEMENT = '\ufffd';
+
+    //~ Enums
+
+    private enum Encoding
+    {
+        ASCII, LATIN1, UTF8
+    }
+
+    //~ Instance fields
+
+    private char pendingLow;
+
+    private int chars;
+
+    // runs of chars that all take the same number of bytes, the text before the first run is one byte per char
+    private int runs;
+    private int width = 1;
+
+    private int[] runChars;
+    private int[] runBytes;
+    private int[] runWidths;
+
+    private final Encoding encoding;
+
+    private MappedByteBuffer buffer;
+
+    //~ Constructors
+
+    private MappedFileReader(MappedByteBuffer buffer, Encoding encoding)
+    {
+        this.buffer = buffer;
+        this.encoding = encoding;
+
+        this.runChars = new int[16];
+        this.runBytes = new int[16];
+        this.runWidths = new int[16];
+    }
+
+    //~ Methods
+
+    /**
+     * map a file for reading.
+     *
+     * @param  path file to map
+     * @param  charset file charset, one of <code>US-ASCII</code>, <code>ISO-8859-1</code> or <code>UTF-8</code>
+     *
+     * @return reader over the mapped file
+     *
+     * @throws IOException if the file can not be mapped
+     * @throws IllegalArgumentException if the charset is not supported
+     */
+    public static MappedFileReader open(Path path, Charset charset) throws IOException
+    {
+        Encoding encoding = getEncoding(charset);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+            {
+                throw new IOException(path + " is too large to be mapped");
+            }
+
+            // the mapping remains valid after the channel is closed
+            return new MappedFileReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), encoding);
+        }
+    }
+
+    /*
+     * @see java.io.Reader#close()
+     */
+    @Override public void close()
+    {
+        // the mapping is released by the garbage collector, the offset table is kept for getByteOffset
+        buffer = null;
+    }
+
+    /**
+     * map a char offset in the decoded text to a byte offset in the file.
+     *
+     * <p>only the text that has been read so far can be mapped.</p>
+     *
+     * @param  offset char offset
+     *
+     * @return byte offset
+     */
+    public int getByteOffset(int offset)
+    {
+        // find the run the offset falls in, every char in it takes the same number of bytes
+        int index = Arrays.binarySearch(runChars, 0, runs, offset);
+
+        if (index < 0)
+        {
+            index = -index - 2;
+        }
+
+        if (index < 0)
+        {
+            return offset;
+        }
+
+        return runBytes[index] + ((offset - runChars[index]) * runWidths[index]);
+    }
+
+    /*
+     * @see java.io.Reader#read(char[], int, int)
+     */
+    @Override public int read(char[] cbuf, int off, int len) throws IOException
+    {
+        if (buffer == null)
+        {
+            throw new IOException("reader has been closed");
+        }
+
+        int read = 0;
+
+        if ((pendingLow != 0) && (len > 0))
+        {
+            cbuf[off + read++] = pendingLow;
+            pendingLow = 0;
+        }
+
+        while ((read < len) && buffer.hasRemaining())
+        {
+            int b = buffer.get() & 0xff;
+
+            if (b < 0x80)
+            {
+                if (width != 1)
+                {
+                    addRun(buffer.position() - 1, 1);
+                }
+
+                cbuf[off + read++] = (char) b;
+                chars++;
+            }
+            else if (encoding == Encoding.LATIN1)
+            {
+                cbuf[off + read++] = (char) b;
+                chars++;
+            }
+            else if (encoding == Encoding.ASCII)
+            {
+                cbuf[off + read++] = REPLACEMENT;
+                chars++;
+            }
+            else
+            {
+                int start = buffer.position() - 1;
+                int cp = decodeUTF8(b);
+
+                // a supplementary code point is 4 bytes for 2 chars
+                int bytes = buffer.position() - start;
+                if ((cp >= 0) && Character.isSupplementaryCodePoint(cp))
+                {
+                    bytes = 2;
+                }
+
+                if (width != bytes)
+                {
+                    addRun(start, bytes);
+                }
+
+                if (cp < 0)
+                {
+                    // malformed, the invalid subpart becomes a single replacement char
+                    cbuf[off + read++] = REPLACEMENT;
+                    chars++;
+                }
+                else if (Character.isSupplementaryCodePoint(cp))
+                {
+                    cbuf[off + read++] = Character.highSurrogate(cp);
+
+                    if (read < len)
+                    {
+                        cbuf[off + read++] = Character.lowSurrogate(cp);
+                    }
+                    else
+                    {
+                        pendingLow = Character.lowSurrogate(cp);
+                    }
+
+                    chars += 2;
+                }
+                else
+                {
+                    cbuf[off + read++] = (char) cp;
+                    chars++;
+                }
+            }
+        }
+
+        return ((read == 0) && (len > 0)) ? -1 : read;
+    }
+
+    /**
+     * can files in the given charset be mapped?
+     *
+     * @param  charset file charset
+     *
+     * @return <code>true</code> if the charset is supported, <code>false</code> otherwise
+     */
+    public static boolean isSupported(Charset charset)
+    {
+        return (StandardCharsets.UTF_8.equals(charset) || StandardCharsets.ISO_8859_1.equals(charset) ||
+                StandardCharsets.US_ASCII.equals(charset));
+    }
+
+    private static Encoding getEncoding(Charset charset)
+    {
+        if (StandardCharsets.UTF_8.equals(charset))
+        {
+            return Encoding.UTF8;
+        }
+
+        if (StandardCharsets.ISO_8859_1.equals(charset))
+        {
+            return Encoding.LATIN1;
+        }
+
+        if (StandardCharsets.US_ASCII.equals(charset))
+        {
+            return Encoding.ASCII;
+        }
+
+        throw new IllegalArgumentException("unsupported charset for mapped input: " + charset);
+    }
+
+    /*
+     * start a new run of chars at the current char offset
+     */
+    private void addRun(int byteOffset, int bytesPerChar)
+    {
+        if (runs == runChars.length)
+        {
+            runChars = Arrays.copyOf(runChars, runs * 2);
+            runBytes = Arrays.copyOf(runBytes, runs * 2);
+            runWidths = Arrays.copyOf(runWidths, runs * 2);
+        }
+
+        runChars[runs] = chars;
+        runBytes[runs] = byteOffset;
+        runWidths[runs] = bytesPerChar;
+        runs++;
+
+        width = bytesPerChar;
+    }
+
+    /**
+     * decode the rest of a multi-byte utf-8 sequence.
+     *
+     * <p>continuation bytes are only consumed while they can still be part of a valid sequence, so a malformed sequence consumes its
+     * maximal invalid subpart and the byte that ended it is decoded on its own.</p>
+     *
+     * @return code point, or <code>-1</code> if the sequence is malformed
+     */
+    private int decodeUTF8(int lead)
+    {
+        int extra;
+        int cp;
+
+        // the range of the first continuation byte rules out overlong forms and code points past U+10FFFF
+        int lower = 0x80;
+        int upper = 0xbf;
+
+        if ((lead >= 0xc2) && (lead <= 0xdf))
+        {
+            extra = 1;
+            cp = lead & 0x1f;
+        }
+        else if ((lead >= 0xe0) && (lead <= 0xef))
+        {
+            extra = 2;
+            cp = lead & 0x0f;
+
+            if (lead == 0xe0)
+            {
+                lower = 0xa0;
+            }
+        }
+        else if ((lead >= 0xf0) && (lead <= 0xf4))
+        {
+            extra = 3;
+            cp = lead & 0x07;
+
+            if (lead == 0xf0)
+            {
+                lower = 0x90;
+            }
+            else if (lead == 0xf4)
+            {
+                upper = 0x8f;
+            }
+        }
+        else
+        {
+            return -1;
+        }
+
+        for (int i = 0; i < extra; i++)
+        {
+            if (!buffer.hasRemaining())
+            {
+                return -1;
+            }
+
+            int b = buffer.get(buffer.position()) & 0xff;
+            if ((b < lower) || (b > upper))
+            {
+                return -1;
+            }
+
+            buffer.get();
+            cp = (cp << 6) | (b & 0x3f);
+
+            lower = 0x80;
+            upper = 0xbf;
+        }
+
+        // like the jdk decoder, an encoded surrogate is consumed as a whole and replaced by a single char
+        if ((cp >= Character.MIN_SURROGATE) && (cp <= Character.MAX_SURROGATE))
+        {
+            return -1;
+        }
+
+        return cp;
+    }
+}
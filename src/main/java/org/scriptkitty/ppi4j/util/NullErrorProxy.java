@@ -10,7 +10,7 @@ public final class NullErrorProxy implements IErrorProxy
 {
     //~ Static fields/initializers
 
-    private static IErrorProxy self;
+    private static final IErrorProxy self = new NullErrorProxy();
 
     //~ Constructors
 
@@ -27,11 +27,6 @@ public final class NullErrorProxy implements IErrorProxy
      */
     public static IErrorProxy getInstance()
     {
-        if (self == null)
-        {
-            self = new NullErrorProxy();
-        }
-
         return self;
     }
 
@@ -24,24 +24,25 @@ public class TestCaseProvider
 {
     //~ Static fields/initializers
 
-    private static String SEPARATOR = File.separator;
+    private static final String SEPARATOR = File.separator;
 
     //~ Methods
 
     public static String getContents(String filePart)
     {
         String path = SEPARATOR + "resources" + SEPARATOR + filePart;
-        StringBuffer buffer = new StringBuffer();
+        StringBuilder buffer = new StringBuilder();
 
         InputStream stream = TestCaseProvider.class.getResourceAsStream(path);
         BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
 
         try
         {
-            int c = 0;
-            while ((c = reader.read()) != -1)
+            char[] chars = new char[8192];
+            int read = 0;
+            while ((read = reader.read(chars)) != -1)
             {
-                buffer.append((char) c);
+                buffer.append(chars, 0, read);
             }
         }
         catch (IOException e)
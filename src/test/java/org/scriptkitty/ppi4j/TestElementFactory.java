@@ -0,0 +1,98 @@
+package org.scriptkitty.ppi4j;
+
+import org.hamcrest.core.IsInstanceOf;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.scriptkitty.ppi4j.parser.DefaultTokenProvider;
+import org.scriptkitty.ppi4j.parser.ParserFactory;
+import org.scriptkitty.ppi4j.statement.SubStatement;
+import org.scriptkitty.ppi4j.structure.ConstructorStructure;
+import org.scriptkitty.ppi4j.token.WordToken;
+import org.scriptkitty.ppi4j.util.TestCaseProvider;
+
+
+public class TestElementFactory
+{
+    //~ Methods
+
+    @Test public void testCreate()
+    {
+        ElementFactory factory = new ElementFactory();
+
+        Assert.assertThat(factory.create(SubStatement.class), IsInstanceOf.instanceOf(SubStatement.class));
+        Assert.assertThat(factory.create(WordToken.class), IsInstanceOf.instanceOf(WordToken.class));
+    }
+
+    @Test public void testCustomToken() throws Exception
+    {
+        ElementFactory factory = new ElementFactory();
+        factory.register(WordToken.class, new IElementFactory<WordToken>()
+            {
+                @Override public WordToken create()
+                {
+                    return new CustomWordToken();
+                }
+            });
+
+        factory.register(SubStatement.class, new IElementFactory<SubStatement>()
+            {
+                @Override public SubStatement create()
+                {
+                    return new CustomSubStatement();
+                }
+            });
+
+        DefaultTokenProvider provider = new DefaultTokenProvider("sub foo { bar }");
+        provider.setElementFactory(factory);
+
+        Document document = ParserFactory.createParser(provider).parse();
+
+        Assert.assertThat(document.getSigChild(0), IsInstanceOf.instanceOf(CustomSubStatement.class));
+        Assert.assertThat(((Node) document.getSigChild(0)).getSigChild(0), IsInstanceOf.instanceOf(CustomWordToken.class));
+        Assert.assertEquals("sub", ((Node) document.getSigChild(0)).getSigChild(0).getContent());
+
+        // other documents are not affected
+        Token[] tokens = TestCaseProvider.getTokens("foo bar");
+
+        Assert.assertEquals(3, tokens.length);
+        Assert.assertSame(WordToken.class, tokens[0].getClass());
+        Assert.assertSame(WordToken.class, tokens[2].getClass());
+    }
+
+    @Test public void testCustomStatement() throws Exception
+    {
+        ElementFactory factory = new ElementFactory();
+        factory.register(Statement.class, new IElementFactory<Statement>()
+            {
+                @Override public Statement create()
+                {
+                    return new CustomStatement();
+                }
+            });
+
+        DefaultTokenProvider provider = new DefaultTokenProvider("{ a => 1 };");
+        provider.setElementFactory(factory);
+
+        Document document = ParserFactory.createParser(provider).parse();
+
+        // a statement starting w/ an anonymous hash
+        Assert.assertThat(document.getSigChild(0), IsInstanceOf.instanceOf(CustomStatement.class));
+        Assert.assertThat(((Node) document.getSigChild(0)).getSigChild(0), IsInstanceOf.instanceOf(ConstructorStructure.class));
+    }
+
+    //~ Inner Classes
+
+    private static class CustomStatement extends Statement
+    {
+    }
+
+    private static class CustomSubStatement extends SubStatement
+    {
+    }
+
+    private static class CustomWordToken extends WordToken
+    {
+    }
+}
@@ -0,0 +1,50 @@
+package org.scriptkitty.ppi4j;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.scriptkitty.ppi4j.token.WordToken;
+import org.scriptkitty.ppi4j.tokenizer.Tokenizer;
+
+
+public class TestKeywordId
+{
+    //~ Methods
+
+    @Test public void testLookup()
+    {
+        for (KeywordId id : KeywordId.values())
+        {
+            if (id != KeywordId.NONE)
+            {
+                Assert.assertSame(id, KeywordId.lookup(new StringBuilder(id.getWord())));
+            }
+        }
+
+        Assert.assertSame(KeywordId.NONE, KeywordId.lookup(""));
+        Assert.assertSame(KeywordId.NONE, KeywordId.lookup("subs"));
+        Assert.assertSame(KeywordId.NONE, KeywordId.lookup("If"));
+        Assert.assertSame(KeywordId.NONE, KeywordId.lookup("=="));
+        Assert.assertSame(KeywordId.NONE, KeywordId.lookup("UNITCHECKS"));
+    }
+
+    @Test public void testTokens() throws Exception
+    {
+        List<Token> tokens = new Tokenizer("foreach my $x (@y) { }").getTokens();
+
+        Assert.assertSame(KeywordId.FOREACH, tokens.get(0).getKeywordId());
+        Assert.assertSame(KeywordId.MY, tokens.get(2).getKeywordId());
+        Assert.assertSame(KeywordId.NONE, tokens.get(4).getKeywordId());
+        Assert.assertSame(KeywordId.CLOSE_CURLY, tokens.get(tokens.size() - 1).getKeywordId());
+
+        // the id follows the content
+        Token token = new WordToken();
+        token.setContent("su");
+        Assert.assertSame(KeywordId.NONE, token.getKeywordId());
+
+        token.appendContent("b");
+        Assert.assertSame(KeywordId.SUB, token.getKeywordId());
+    }
+}
@@ -0,0 +1,157 @@
+package org.scriptkitty.ppi4j.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.scriptkitty.ppi4j.Document;
+import org.scriptkitty.ppi4j.Element;
+import org.scriptkitty.ppi4j.Token;
+import org.scriptkitty.ppi4j.token.HereDocToken;
+import org.scriptkitty.ppi4j.util.TestCaseProvider;
+
+
+public class TestConcurrentParsing
+{
+    //~ Static fields/initializers
+
+    private static final int THREADS = 8;
+
+    private static final int ITERATIONS = 200;
+
+    private static final String[] SOURCES =
+    {
+        "$hash{foo} = bar;",
+        "while (1) { print $_ for @list; }",
+        "sub foo { my ($self, %args) = @_; return $self->{bar}{baz}; }",
+        "use strict;\nuse warnings;\n\nmy $x = <<EOT;\nbody\nEOT\nprint $x;\n",
+        "if ($a =~ m/foo(bar)/i) { s{x}{y}g; } elsif ($b) { qw(a b c); } else { 1 }",
+        "foreach my $i (0 .. 10) { next unless $i % 2; $sum += $i }\n# comment\n"
+    };
+
+    //~ Methods
+
+    @Test public void testConcurrentParsing() throws Exception
+    {
+        final String[] expected = new String[SOURCES.length];
+        for (int i = 0; i < SOURCES.length; i++)
+        {
+            expected[i] = describe(TestCaseProvider.parseSnippet(SOURCES[i]));
+        }
+
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try
+        {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++)
+            {
+                final int offset = t;
+                futures.add(executor.submit(new Callable<Void>()
+                        {
+                            @Override public Void call() throws Exception
+                            {
+                                start.await();
+
+                                for (int i = 0; i < ITERATIONS; i++)
+                                {
+                                    int index = (offset + i) % SOURCES.length;
+                                    Document document = TestCaseProvider.parseSnippet(SOURCES[index]);
+
+                                    Assert.assertEquals(expected[index], describe(document));
+                                }
+
+                                return null;
+                            }
+                        }));
+            }
+
+            start.countDown();
+
+            for (Future<Void> future : futures)
+            {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test public void testHereDoc() throws Exception
+    {
+        StringBuilder builder = new StringBuilder("print <<EOT;\n");
+        for (int i = 0; i < 100; i++)
+        {
+            builder.append("line ").append(i).append('\n');
+        }
+
+        Document document = TestCaseProvider.parseSnippet(builder.append("EOT\n").toString());
+
+        // the lines are split on first request, which several threads make at once
+        final HereDocToken token = (HereDocToken) document.find(HereDocToken.class).get(0);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try
+        {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++)
+            {
+                futures.add(executor.submit(new Callable<List<String>>()
+                        {
+                            @Override public List<String> call() throws Exception
+                            {
+                                start.await();
+                                return token.getHereDoc();
+                            }
+                        }));
+            }
+
+            start.countDown();
+
+            for (Future<List<String>> future : futures)
+            {
+                List<String> lines = future.get(60, TimeUnit.SECONDS);
+
+                Assert.assertEquals(100, lines.size());
+                for (int i = 0; i < lines.size(); i++)
+                {
+                    Assert.assertEquals("line " + i + "\n", lines.get(i));
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String describe(Document document)
+    {
+        StringBuilder builder = new StringBuilder();
+
+        for (Token token : document.getTokens())
+        {
+            Assert.assertSame(document, token.getTop());
+
+            Element parent = token.getParent();
+            builder.append(token.getClass().getSimpleName()).append('|');
+            builder.append(token.getContent()).append('|');
+            builder.append(parent.getClass().getSimpleName()).append('\n');
+        }
+
+        return builder.toString();
+    }
+}
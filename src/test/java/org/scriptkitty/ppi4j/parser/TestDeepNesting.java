@@ -0,0 +1,141 @@
+package org.scriptkitty.ppi4j.parser;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.hamcrest.core.IsInstanceOf;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.scriptkitty.ppi4j.Document;
+import org.scriptkitty.ppi4j.Element;
+import org.scriptkitty.ppi4j.Node;
+import org.scriptkitty.ppi4j.Statement;
+import org.scriptkitty.ppi4j.Structure;
+import org.scriptkitty.ppi4j.Token;
+import org.scriptkitty.ppi4j.exception.ParserException;
+import org.scriptkitty.ppi4j.exception.TokenizerException;
+import org.scriptkitty.ppi4j.statement.VariableStatement;
+import org.scriptkitty.ppi4j.structure.ConstructorStructure;
+
+
+public class TestDeepNesting
+{
+    //~ Static fields/initializers
+
+    private static final int DEPTH = 100000;
+
+    /* well inside the only top level statement */
+    private static final int INTERRUPT = 1000;
+
+    /* well below the default, the parser must not need a stack frame per nesting level */
+    private static final long STACK_SIZE = 256 * 1024;
+
+    //~ Methods
+
+    @Test public void testInterrupted() throws Throwable
+    {
+        final AtomicInteger count = new AtomicInteger();
+
+        // interrupt the thread the same way a batch parse that times out does
+        DefaultTokenProvider provider = new DefaultTokenProvider(createSource())
+        {
+            @Override public Token nextToken() throws TokenizerException
+            {
+                if (count.incrementAndGet() == INTERRUPT)
+                {
+                    Thread.currentThread().interrupt();
+                }
+
+                return super.nextToken();
+            }
+        };
+
+        try
+        {
+            parse(provider);
+            Assert.fail("parse was not interrupted");
+        }
+        catch (ParserException e)
+        {
+            Assert.assertThat(e.getCause(), IsInstanceOf.instanceOf(InterruptedException.class));
+        }
+
+        // stopped long before the end of the statement
+        Assert.assertTrue(count.get() < (INTERRUPT + 100));
+    }
+
+    @Test public void testNestedConstructors() throws Throwable
+    {
+        Document document = parse(new DefaultTokenProvider(createSource()));
+
+        Element stmt = document.getSigChild(0);
+        Assert.assertThat(stmt, IsInstanceOf.instanceOf(VariableStatement.class));
+
+        int depth = 0;
+        Structure struct = (Structure) ((Node) stmt).getSigChild(-2);
+
+        while (struct != null)
+        {
+            Assert.assertThat(struct, IsInstanceOf.instanceOf(ConstructorStructure.class));
+            Assert.assertTrue(struct.hasFinish());
+
+            depth++;
+
+            // the nested structure is the last element of the statement inside this one
+            Element last = ((Statement) struct.getSigChild(0)).getSigChild(-1);
+            struct = (last instanceof Structure) ? (Structure) last : null;
+        }
+
+        Assert.assertEquals(DEPTH, depth);
+        Assert.assertEquals(";", ((Node) stmt).getSigChild(-1).getContent());
+    }
+
+    private String createSource()
+    {
+        StringBuilder builder = new StringBuilder("my $x = ");
+
+        for (int i = 0; i < DEPTH; i++)
+        {
+            builder.append((i % 2 == 0) ? "[" : "{ a => ");
+        }
+
+        for (int i = DEPTH - 1; i >= 0; i--)
+        {
+            builder.append((i % 2 == 0) ? "]" : " }");
+        }
+
+        return builder.append(";\n").toString();
+    }
+
+    private Document parse(final ITokenProvider provider) throws Throwable
+    {
+        final AtomicReference<Object> result = new AtomicReference<>();
+
+        Thread thread = new Thread(null, new Runnable()
+                {
+                    @Override public void run()
+                    {
+                        try
+                        {
+                            result.set(ParserFactory.createParser(provider).parse());
+                        }
+                        catch (Throwable t)
+                        {
+                            result.set(t);
+                        }
+                    }
+                }, "parser", STACK_SIZE);
+
+        thread.start();
+        thread.join();
+
+        if (result.get() instanceof Throwable)
+        {
+            throw (Throwable) result.get();
+        }
+
+        return (Document) result.get();
+    }
+}
@@ -0,0 +1,330 @@
+package org.scriptkitty.ppi4j.parser;
+
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.hamcrest.core.IsInstanceOf;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.scriptkitty.ppi4j.exception.UncheckedInterruptedException;
+import org.scriptkitty.ppi4j.statement.SubStatement;
+
+
+public class TestParallelParser
+{
+    //~ Static fields/initializers
+
+    /* deep enough that parsing takes far longer than the timeout */
+    private static final int NESTING = 300000;
+
+    //~ Methods
+
+    @Test public void testCancel() throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // occupy the only worker so the batch can not start
+        executor.execute(new Runnable()
+            {
+                @Override public void run()
+                {
+                    try
+                    {
+                        latch.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+
+        ParallelParser parser = new ParallelParser(executor);
+
+        try
+        {
+            Map<String, String> sources = new LinkedHashMap<>();
+            sources.put("a", "print 1;");
+            sources.put("b", "print 2;");
+
+            DocumentBatch batch = parser.parseSources(sources);
+            batch.cancel();
+
+            int count = 0;
+            for (ParseResult result : batch)
+            {
+                Assert.assertFalse(result.isSuccess());
+                Assert.assertThat(result.getError(), IsInstanceOf.instanceOf(CancellationException.class));
+                count++;
+            }
+
+            Assert.assertEquals(2, count);
+        }
+        finally
+        {
+            latch.countDown();
+            parser.shutdown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test public void testInterrupted() throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // occupy the only worker so the batch can not start
+        executor.execute(new Runnable()
+            {
+                @Override public void run()
+                {
+                    try
+                    {
+                        latch.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+
+        ParallelParser parser = new ParallelParser(executor);
+
+        try
+        {
+            Iterator<ParseResult> iterator = parser.parseSources(Collections.singletonMap("a", "print 1;")).iterator();
+
+            Thread.currentThread().interrupt();
+
+            try
+            {
+                iterator.next();
+                Assert.fail("the interruption was not reported");
+            }
+            catch (UncheckedInterruptedException e)
+            {
+                Assert.assertThat(e.getCause(), IsInstanceOf.instanceOf(InterruptedException.class));
+                Assert.assertTrue(Thread.interrupted());
+            }
+        }
+        finally
+        {
+            latch.countDown();
+            parser.shutdown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test public void testParseFiles() throws Exception
+    {
+        Path dir = Files.createTempDirectory("ppi4j");
+        Path file = Files.write(dir.resolve("Foo.pm"), "package Foo;\nsub bar { 1 }\n1;\n".getBytes("UTF-8"));
+        Path missing = dir.resolve("Missing.pm");
+
+        ParallelParser parser = new ParallelParser();
+
+        try
+        {
+            DocumentBatch batch = parser.parse(Arrays.asList(file, missing));
+            Assert.assertEquals(2, batch.size());
+
+            ParseResult first = batch.take();
+            ParseResult second = batch.take();
+            Assert.assertNull(batch.take());
+
+            ParseResult found = first.isSuccess() ? first : second;
+            ParseResult failed = first.isSuccess() ? second : first;
+
+            Assert.assertEquals(file.toString(), found.getName());
+            Assert.assertEquals(1, found.getDocument().find(SubStatement.class).size());
+
+            Assert.assertEquals(missing.toString(), failed.getName());
+            Assert.assertNull(failed.getDocument());
+            Assert.assertThat(failed.getError(), IsInstanceOf.instanceOf(NoSuchFileException.class));
+        }
+        finally
+        {
+            parser.shutdown();
+            Files.delete(file);
+            Files.delete(dir);
+        }
+    }
+
+    @Test public void testParseSources() throws Exception
+    {
+        Map<String, String> sources = new LinkedHashMap<>();
+        for (int i = 0; i < 50; i++)
+        {
+            sources.put("source" + i, "sub foo" + i + " { my $x = " + i + "; return $x * 2; }");
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        ParallelParser parser = new ParallelParser(executor);
+        parser.setTimeout(30, TimeUnit.SECONDS);
+
+        try
+        {
+            Set<String> names = new HashSet<>();
+            for (ParseResult result : parser.parseSources(sources))
+            {
+                Assert.assertTrue(result.getName(), result.isSuccess());
+                Assert.assertEquals(1, result.getDocument().find(SubStatement.class).size());
+
+                names.add(result.getName());
+            }
+
+            Assert.assertEquals(sources.keySet(), names);
+        }
+        finally
+        {
+            parser.shutdown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test public void testPollTimeout() throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // occupy the only worker so the batch can not start
+        executor.execute(new Runnable()
+            {
+                @Override public void run()
+                {
+                    try
+                    {
+                        latch.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+
+        ParallelParser parser = new ParallelParser(executor);
+
+        try
+        {
+            Map<String, String> sources = new LinkedHashMap<>();
+            sources.put("a", "print 1;");
+            sources.put("b", "print 2;");
+
+            final DocumentBatch batch = parser.parseSources(sources);
+            final CountDownLatch waiting = new CountDownLatch(1);
+
+            Thread taker = new Thread(new Runnable()
+                    {
+                        @Override public void run()
+                        {
+                            try
+                            {
+                                waiting.countDown();
+                                batch.take();
+                            }
+                            catch (InterruptedException e)
+                            {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                    });
+            taker.start();
+            waiting.await();
+
+            // a blocked take must not keep a concurrent poll from timing out
+            long start = System.nanoTime();
+            Assert.assertNull(batch.poll(100, TimeUnit.MILLISECONDS));
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+
+            latch.countDown();
+            taker.join(5000);
+            Assert.assertFalse(taker.isAlive());
+
+            // the slot given back by the timed out poll is still reported
+            Assert.assertNotNull(batch.poll(5, TimeUnit.SECONDS));
+            Assert.assertNull(batch.poll(0, TimeUnit.MILLISECONDS));
+        }
+        finally
+        {
+            latch.countDown();
+            parser.shutdown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test public void testTimeout() throws Exception
+    {
+        StringBuilder builder = new StringBuilder("my $x = ");
+        for (int i = 0; i < NESTING; i++)
+        {
+            builder.append("[");
+        }
+
+        for (int i = 0; i < NESTING; i++)
+        {
+            builder.append("]");
+        }
+
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("slow", builder.append(";\n").toString());
+
+        for (int i = 0; i < 5; i++)
+        {
+            sources.put("source" + i, "print " + i + ";");
+        }
+
+        // a single worker, the other sources only start once the slow one has stopped
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        ParallelParser parser = new ParallelParser(executor);
+        parser.setTimeout(250, TimeUnit.MILLISECONDS);
+
+        try
+        {
+            Set<String> names = new HashSet<>();
+            for (ParseResult result : parser.parseSources(sources))
+            {
+                if ("slow".equals(result.getName()))
+                {
+                    Assert.assertFalse(result.isSuccess());
+                    Assert.assertThat(result.getError(), IsInstanceOf.instanceOf(TimeoutException.class));
+                }
+                else
+                {
+                    Assert.assertTrue(result.getName(), result.isSuccess());
+                    Assert.assertNotNull(result.getDocument());
+                }
+
+                names.add(result.getName());
+            }
+
+            Assert.assertEquals(sources.keySet(), names);
+        }
+        finally
+        {
+            parser.shutdown();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.scriptkitty.ppi4j.parser;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.scriptkitty.ppi4j.Statement;
+import org.scriptkitty.ppi4j.Token;
+import org.scriptkitty.ppi4j.statement.CompoundStatement;
+import org.scriptkitty.ppi4j.token.LabelToken;
+import org.scriptkitty.ppi4j.token.SymbolToken;
+import org.scriptkitty.ppi4j.token.WhitespaceToken;
+import org.scriptkitty.ppi4j.token.WordToken;
+
+
+public class TestStatementBuilder
+{
+    //~ Methods
+
+    @Test public void testChildren()
+    {
+        Token word = token(new WordToken(), "print");
+        StatementBuilder builder = new StatementBuilder(new Statement(word));
+
+        Assert.assertEquals(1, builder.getSigCount());
+        Assert.assertSame(word, builder.getFirst());
+        Assert.assertSame(word, builder.getLast());
+        Assert.assertNull(builder.getSecond());
+        Assert.assertNull(builder.getPrevious());
+
+        Token space = token(new WhitespaceToken(), " ");
+        Token symbol = token(new SymbolToken(), "$x");
+
+        builder.addChild(space);
+        builder.addChild(symbol);
+
+        Assert.assertEquals(2, builder.getSigCount());
+        Assert.assertSame(symbol, builder.getSecond());
+        Assert.assertSame(symbol, builder.getLast());
+        Assert.assertSame(word, builder.getPrevious());
+
+        builder.addChild(space);
+
+        Assert.assertSame(space, builder.getLastElement());
+        Assert.assertSame(symbol, builder.getLast());
+
+        Assert.assertEquals(4, builder.getStatement().getChildrenCount());
+        Assert.assertSame(builder.getStatement().getSigChild(-1), builder.getLast());
+    }
+
+    @Test public void testType()
+    {
+        StatementBuilder builder = new StatementBuilder(new CompoundStatement());
+
+        builder.addChild(token(new LabelToken(), "LOOP:"));
+        Assert.assertEquals(Statement.Type.LABEL, builder.getType());
+
+        builder.addChild(token(new WordToken(), "for"));
+        Assert.assertEquals(Statement.Type.FOR, builder.getType());
+
+        // the 3rd child decides between 'for' and 'foreach'
+        builder.addChild(token(new WordToken(), "my"));
+        Assert.assertEquals(Statement.Type.FOREACH, builder.getType());
+
+        builder.addChild(token(new SymbolToken(), "$x"));
+        Assert.assertEquals(Statement.Type.FOREACH, builder.getType());
+    }
+
+    private Token token(Token token, String content)
+    {
+        token.setContent(content);
+        return token;
+    }
+}
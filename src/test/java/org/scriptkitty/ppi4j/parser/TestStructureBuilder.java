@@ -0,0 +1,83 @@
+package org.scriptkitty.ppi4j.parser;
+
+import org.hamcrest.core.IsInstanceOf;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.scriptkitty.ppi4j.Document;
+import org.scriptkitty.ppi4j.Element;
+import org.scriptkitty.ppi4j.ElementFactory;
+import org.scriptkitty.ppi4j.Node;
+import org.scriptkitty.ppi4j.Statement;
+import org.scriptkitty.ppi4j.Structure;
+import org.scriptkitty.ppi4j.Token;
+import org.scriptkitty.ppi4j.statement.CompoundStatement;
+import org.scriptkitty.ppi4j.statement.ExpressionStatement;
+import org.scriptkitty.ppi4j.structure.BlockStructure;
+import org.scriptkitty.ppi4j.structure.ForLoopStructure;
+import org.scriptkitty.ppi4j.structure.ListStructure;
+import org.scriptkitty.ppi4j.token.StructureToken;
+
+
+public class TestStructureBuilder
+{
+    //~ Methods
+
+    @Test public void testBuild()
+    {
+        StructureBuilder builder = new StructureBuilder(ForLoopStructure.class, token(new StructureToken(), "("));
+        Statement stmt = new ExpressionStatement();
+
+        builder.addChild(stmt);
+        Assert.assertFalse(builder.isClosedBy((StructureToken) token(new StructureToken(), "}")));
+        Assert.assertTrue(builder.isClosedBy((StructureToken) token(new StructureToken(), ")")));
+
+        // never closed, still a for loop
+        Structure struct = builder.build(new ElementFactory());
+        Assert.assertThat(struct, IsInstanceOf.instanceOf(ForLoopStructure.class));
+
+        // a single statement makes it a list
+        builder = new StructureBuilder(ForLoopStructure.class, token(new StructureToken(), "("));
+        builder.addChild(stmt);
+        builder.setFinish(token(new StructureToken(), ")"));
+
+        struct = builder.build(new ElementFactory());
+        Assert.assertThat(struct, IsInstanceOf.instanceOf(ListStructure.class));
+        Assert.assertSame(struct, stmt.getParent());
+        Assert.assertSame(struct, struct.getStart().getParent());
+        Assert.assertSame(struct, struct.getFinish().getParent());
+    }
+
+    @Test public void testParse() throws Exception
+    {
+        Document document = ParserFactory.createParser(new DefaultTokenProvider("{ 1; } for (@foo) { } for ($i = 0; $i < 1; $i++) { }")).parse();
+
+        Assert.assertThat(document.getSigChild(0), IsInstanceOf.instanceOf(CompoundStatement.class));
+        Assert.assertThat(((Node) document.getSigChild(0)).getSigChild(0), IsInstanceOf.instanceOf(BlockStructure.class));
+
+        Assert.assertThat(((Node) document.getSigChild(1)).getSigChild(1), IsInstanceOf.instanceOf(ListStructure.class));
+        Assert.assertThat(((Node) document.getSigChild(2)).getSigChild(1), IsInstanceOf.instanceOf(ForLoopStructure.class));
+
+        assertParents(document);
+    }
+
+    private void assertParents(Node node)
+    {
+        for (Element element : node.getElements())
+        {
+            Assert.assertSame(node, element.getParent());
+
+            if (element instanceof Node)
+            {
+                assertParents((Node) element);
+            }
+        }
+    }
+
+    private Token token(Token token, String content)
+    {
+        token.setContent(content);
+        return token;
+    }
+}
@@ -0,0 +1,134 @@
+package org.scriptkitty.ppi4j.parser;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.scriptkitty.ppi4j.Document;
+import org.scriptkitty.ppi4j.Element;
+import org.scriptkitty.ppi4j.Node;
+import org.scriptkitty.ppi4j.Token;
+import org.scriptkitty.ppi4j.exception.TokenizerException;
+import org.scriptkitty.ppi4j.token.WordToken;
+
+
+public class TestTokenBuffer
+{
+    //~ Methods
+
+    @Test public void testBothEnds()
+    {
+        TokenBuffer buffer = new TokenBuffer();
+
+        // enough tokens to wrap around and grow the ring
+        for (int i = 0; i < 40; i++)
+        {
+            buffer.addLast(token(i));
+            buffer.addFirst(token(-i - 1));
+        }
+
+        Assert.assertEquals(80, buffer.size());
+
+        for (int i = 0; i < 80; i++)
+        {
+            Assert.assertEquals(String.valueOf(i - 40), buffer.get(i).getContent());
+        }
+
+        Assert.assertEquals("-40", buffer.removeFirst().getContent());
+        Assert.assertEquals("39", buffer.removeLast().getContent());
+        Assert.assertEquals("-39", buffer.get(0).getContent());
+
+        buffer.clear();
+        Assert.assertTrue(buffer.isEmpty());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOutOfBounds()
+    {
+        TokenBuffer buffer = new TokenBuffer();
+        buffer.addLast(token(0));
+
+        buffer.get(1);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testRemoveEmpty()
+    {
+        new TokenBuffer().removeFirst();
+    }
+
+    @Test public void testPeek() throws Exception
+    {
+        DefaultTokenProvider provider = new DefaultTokenProvider("foo bar;");
+
+        Assert.assertEquals(";", provider.peek(3).getContent());
+        Assert.assertEquals("foo", provider.peek(0).getContent());
+        Assert.assertEquals("foo", provider.nextToken().getContent());
+
+        provider.rollback(token("baz"));
+
+        Assert.assertEquals("baz", provider.peek(0).getContent());
+        Assert.assertEquals(" ", provider.peek(1).getContent());
+        Assert.assertSame(Token.EOF, provider.peek(4));
+    }
+
+    @Test public void testProvider() throws Exception
+    {
+        // the parser looks ahead for anonymous hashes and subs, a provider that can not look ahead itself is buffered
+        String source = "{ a => 1 }; { 1; } sub foo { } my $x = sub { { b => 2 } };";
+        final DefaultTokenProvider provider = new DefaultTokenProvider(source);
+
+        Document expected = ParserFactory.createParser(new DefaultTokenProvider(source)).parse();
+        Document document = ParserFactory.createParser(new ITokenProvider()
+                {
+                    @Override public Token nextToken() throws TokenizerException
+                    {
+                        return provider.nextToken();
+                    }
+
+                    @Override public void rollback(Token token)
+                    {
+                        provider.rollback(token);
+                    }
+                }).parse();
+
+        Assert.assertEquals(describe(expected), describe(document));
+    }
+
+    private String describe(Element element)
+    {
+        StringBuilder builder = new StringBuilder(element.getClass().getSimpleName());
+
+        if (element instanceof Node)
+        {
+            builder.append('(');
+
+            for (Element child : ((Node) element).getElements())
+            {
+                builder.append(describe(child)).append(' ');
+            }
+
+            builder.append(')');
+        }
+        else
+        {
+            builder.append(':').append(element.getContent());
+        }
+
+        return builder.toString();
+    }
+
+    private Token token(int i)
+    {
+        return token(String.valueOf(i));
+    }
+
+    private Token token(String content)
+    {
+        Token token = new WordToken();
+        token.setContent(content);
+
+        return token;
+    }
+}
@@ -119,6 +119,41 @@ public class TestHereDocTokens
         Assert.assertEquals("\n", tokens[6].getContent());
     }
 
+    @Test public void testHereDoc15() throws Exception
+    {
+        // the terminator is matched literally, not as a pattern
+        Token[] tokens = TestCaseProvider.getTokens("<<'.';\nx\r\n.x\n.\r\nfoo");
+
+        Assert.assertEquals(4, tokens.length);
+
+        Assert.assertThat(tokens[0], IsInstanceOf.instanceOf(HereDocToken.class));
+        Assert.assertEquals(2, ((HereDocToken) tokens[0]).getLineCount());
+        Assert.assertEquals("x\r\n", ((HereDocToken) tokens[0]).getHereDoc().get(0));
+        Assert.assertEquals(".x\n", ((HereDocToken) tokens[0]).getHereDoc().get(1));
+        Assert.assertEquals(".\r\n", ((HereDocToken) tokens[0]).getTerminatorLine());
+
+        Assert.assertThat(tokens[3], IsInstanceOf.instanceOf(WordToken.class));
+        Assert.assertEquals("foo", tokens[3].getContent());
+    }
+
+    @Test public void testHereDoc16() throws Exception
+    {
+        Token[] tokens = TestCaseProvider.getTokens("<<EOF;\none\rtwo\r\nthree\nEOF\n");
+        HereDocToken token = (HereDocToken) tokens[0];
+
+        Assert.assertEquals(3, token.getLineCount());
+        Assert.assertEquals("one\rtwo\r\nthree\n", token.getHereDocContent().toString());
+        Assert.assertEquals(15, token.getHereDocLength());
+
+        Assert.assertEquals(3, token.getHereDoc().size());
+        Assert.assertEquals("one\r", token.getHereDoc().get(0));
+        Assert.assertEquals("two\r\n", token.getHereDoc().get(1));
+        Assert.assertEquals("three\n", token.getHereDoc().get(2));
+
+        Assert.assertEquals(token.getHereDocOffset() + 15, token.getTerminatorOffset());
+        Assert.assertEquals(token.getHereDocOffset() + 15 + 4, token.getEndOffset());
+    }
+
     @Test public void testHereDoc2() throws Exception
     {
         Token token = TestCaseProvider.getToken("<<\\EOF");
@@ -0,0 +1,172 @@
+package org.scriptkitty.ppi4j.tokenizer;
+
+import java.io.StringReader;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.scriptkitty.ppi4j.Document;
+import org.scriptkitty.ppi4j.Token;
+import org.scriptkitty.ppi4j.exception.TokenizerException;
+import org.scriptkitty.ppi4j.parser.DefaultTokenProvider;
+import org.scriptkitty.ppi4j.parser.ITokenProvider;
+import org.scriptkitty.ppi4j.parser.ParserFactory;
+import org.scriptkitty.ppi4j.token.HereDocToken;
+
+
+public class TestLineIndex
+{
+    //~ Static fields/initializers
+
+    private static final String SOURCE = "my $x = <<EOT . <<'EOS';\nfoo\nbar\nEOT\r\nbaz\nEOS\nprint $x;\r\n\n  # comment\rexit;\n";
+
+    //~ Methods
+
+    @Test public void testDocument() throws Exception
+    {
+        Document document = ParserFactory.createParser(new DefaultTokenProvider(SOURCE)).parse();
+
+        Assert.assertEquals(11, document.offsetToLine(SOURCE.length()));
+        Assert.assertEquals(SOURCE.indexOf("print"), document.lineToOffset(7));
+        Assert.assertEquals(3, document.offsetToColumn(SOURCE.indexOf("# comment")));
+
+        // a provider that does not record line starts
+        final DefaultTokenProvider provider = new DefaultTokenProvider(SOURCE);
+        document = ParserFactory.createParser(new ITokenProvider()
+                {
+                    @Override public Token nextToken() throws TokenizerException
+                    {
+                        return provider.nextToken();
+                    }
+
+                    @Override public void rollback(Token token)
+                    {
+                        provider.rollback(token);
+                    }
+                }).parse();
+
+        Assert.assertEquals(1, document.getLineIndex().getLineCount());
+        Assert.assertEquals(1, document.offsetToLine(SOURCE.length()));
+        Assert.assertEquals(0, new Document().lineToOffset(1));
+    }
+
+    @Test public void testOffsets() throws Exception
+    {
+        Tokenizer tokenizer = new Tokenizer(SOURCE);
+        List<Token> tokens = tokenizer.getTokens();
+        LineIndex index = tokenizer.getLineIndex();
+
+        // the source ends w/ a line terminator, so there is an empty last line
+        Assert.assertEquals(11, index.getLineCount());
+
+        boolean sawHereDoc = false;
+        for (Token token : tokens)
+        {
+            sawHereDoc |= (token instanceof HereDocToken);
+
+            int offset = token.getStartOffset();
+
+            Assert.assertEquals(token.toString(), line(SOURCE, offset), index.offsetToLine(offset));
+            Assert.assertEquals(token.toString(), (offset - Math.max(SOURCE.lastIndexOf('\n', offset - 1), SOURCE.lastIndexOf('\r', offset - 1))),
+                index.offsetToColumn(offset));
+        }
+
+        Assert.assertTrue(sawHereDoc);
+
+        for (int line = 1; line <= index.getLineCount(); line++)
+        {
+            int offset = index.lineToOffset(line);
+
+            Assert.assertEquals(line, index.offsetToLine(offset));
+            Assert.assertEquals(1, index.offsetToColumn(offset));
+        }
+    }
+
+    @Test public void testOutOfRange()
+    {
+        LineIndex index = new Tokenizer("").getLineIndex();
+
+        Assert.assertEquals(1, index.getLineCount());
+        Assert.assertEquals(1, index.offsetToLine(100));
+
+        try
+        {
+            index.offsetToLine(-1);
+            Assert.fail();
+        }
+        catch (IndexOutOfBoundsException e)
+        {
+            // expected
+        }
+
+        try
+        {
+            index.lineToOffset(2);
+            Assert.fail();
+        }
+        catch (IndexOutOfBoundsException e)
+        {
+            // expected
+        }
+    }
+
+    @Test public void testStreaming() throws Exception
+    {
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < 50000)
+        {
+            builder.append(SOURCE);
+        }
+
+        String source = builder.toString();
+
+        Tokenizer tokenizer = new Tokenizer(new StringReader(source));
+        tokenizer.getTokens();
+
+        LineIndex index = tokenizer.getLineIndex();
+
+        int line = 1;
+        int start = 0;
+
+        for (int offset = 0; offset < source.length(); offset++)
+        {
+            Assert.assertEquals(line, index.offsetToLine(offset));
+            Assert.assertEquals((offset - start) + 1, index.offsetToColumn(offset));
+
+            if (line(source, offset, offset + 1) == 2)
+            {
+                line++;
+                start = offset + 1;
+            }
+        }
+
+        Assert.assertEquals(line, index.getLineCount());
+    }
+
+    /*
+     * count the line terminators before the offset
+     */
+    private int line(String source, int offset)
+    {
+        return line(source, 0, offset);
+    }
+
+    private int line(String source, int from, int offset)
+    {
+        int line = 1;
+
+        for (int i = from; i < offset; i++)
+        {
+            char c = source.charAt(i);
+
+            if ((c == '\n') || ((c == '\r') && (((i + 1) == source.length()) || (source.charAt(i + 1) != '\n'))))
+            {
+                line++;
+            }
+        }
+
+        return line;
+    }
+}
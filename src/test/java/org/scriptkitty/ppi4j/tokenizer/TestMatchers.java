@@ -0,0 +1,100 @@
+package org.scriptkitty.ppi4j.tokenizer;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * checks each hand written matcher against the regular expression it replaced.
+ */
+public class TestMatchers
+{
+    //~ Static fields/initializers
+
+    private static final String ALPHABET = "ab_v09 \t\r\n:'$@%&*=#.\\\"{}()\u0085\u2028x";
+
+    //~ Methods
+
+    @Test public void testQuoteEnd()
+    {
+        for (String source : sources())
+        {
+            for (String separator : new String[] { "'", "\"", "\\", "}" })
+            {
+                assertEnd("^(.*?(?<!\\\\)(?:\\\\\\\\)*" + Pattern.quote(separator) + ")", source, Matchers.quoteEnd(source, separator));
+            }
+
+            assertEnd("^(.*?(?<!\\\\)(?:\\\\\\\\)*(?:\\{|\\}))", source, Matchers.quoteEnd(source, "{", "}"));
+        }
+    }
+
+    @Test public void testSymbols()
+    {
+        for (String source : sources())
+        {
+            assertEnd("^([\\w:']+)", source, Matchers.symbolChars(source));
+            assertEnd("^([\\$@%&*] (?: : (?!:) | (?: \\w+ | ' (?!\\d) \\w+ | \\:: \\w+ ) (?: (?: ' (?!\\d) \\w+ | \\:: \\w+ ))* (?: :: )? ))",
+                Pattern.COMMENTS, source, Matchers.symbol(source));
+        }
+    }
+
+    @Test public void testLineStart()
+    {
+        for (String source : sources())
+        {
+            Assert.assertEquals(source, Pattern.compile("^\\s*$").matcher(source).find(), Matchers.isWhitespace(source));
+            Assert.assertEquals(source, Pattern.compile("^\\s*#").matcher(source).find(), Matchers.isComment(source));
+
+            Matcher matcher = Pattern.compile("^=(\\w+)").matcher(source);
+            int end = Matchers.pod(source);
+
+            Assert.assertEquals(source, matcher.find() ? matcher.end() : -1, end);
+            Assert.assertEquals(source, (end != -1) && "cut".equals(matcher.group(1)), Matchers.isPodCut(source, end));
+        }
+    }
+
+    @Test public void testWords()
+    {
+        for (String source : sources())
+        {
+            assertEnd("^((?!\\d)\\w+(?:(?:'|::)\\w+)*(?:::)?)", source, Matchers.word(source));
+            assertEnd("^(v\\d+(?:\\.\\d+)*)", source, Matchers.vstring(source));
+            assertEnd("^(\\s*=>)", source, Matchers.afterWhitespace(source, "=>"));
+        }
+    }
+
+    private void assertEnd(String regex, String source, int end)
+    {
+        assertEnd(regex, 0, source, end);
+    }
+
+    private void assertEnd(String regex, int flags, String source, int end)
+    {
+        Matcher matcher = Pattern.compile(regex, flags).matcher(source);
+        Assert.assertEquals(regex + " : " + source, matcher.find() ? matcher.end() : -1, end);
+    }
+
+    private String[] sources()
+    {
+        Random random = new Random(42);
+        String[] sources = new String[20000];
+
+        for (int i = 0; i < sources.length; i++)
+        {
+            StringBuilder builder = new StringBuilder();
+
+            for (int j = random.nextInt(12); j > 0; j--)
+            {
+                builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+
+            sources[i] = builder.toString();
+        }
+
+        return sources;
+    }
+}
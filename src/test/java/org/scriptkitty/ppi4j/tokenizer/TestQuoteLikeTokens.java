@@ -29,6 +29,7 @@ public class TestQuoteLikeTokens
         Assert.assertThat(tokens[0], IsInstanceOf.instanceOf(QLReadlineToken.class));
         Assert.assertEquals("<>", tokens[0].getContent());
         Assert.assertEquals("", ((QLReadlineToken) tokens[0]).getString());
+        Assert.assertEquals(0, ((QLReadlineToken) tokens[0]).getStringStartOffset());
 
         Assert.assertThat(tokens[1], IsInstanceOf.instanceOf(StructureToken.class));
         Assert.assertEquals(";", tokens[1].getContent());
@@ -1,5 +1,7 @@
 package org.scriptkitty.ppi4j.tokenizer;
 
+import java.util.Arrays;
+
 import org.hamcrest.core.IsInstanceOf;
 
 import org.junit.Assert;
@@ -97,4 +99,33 @@ public class TestRESubstituteTokens
         Assert.assertThat(tokens[1], IsInstanceOf.instanceOf(StructureToken.class));
         Assert.assertEquals(";", tokens[1].getContent());
     }
+
+    @Test public void testSubstitute7()
+    {
+        Token[] tokens = TestCaseProvider.getTokens("s{a\\}}\n  [b\nc]gi;");
+
+        Assert.assertEquals(2, tokens.length);
+
+        Assert.assertThat(tokens[0], IsInstanceOf.instanceOf(RESubstituteToken.class));
+        Assert.assertEquals("s{a\\}}\n  [b\nc]gi", tokens[0].getContent());
+
+        Assert.assertEquals("a\\}", ((RESubstituteToken) tokens[0]).getMatch());
+        Assert.assertEquals("b\nc", ((RESubstituteToken) tokens[0]).getSubstitution());
+        Assert.assertEquals(Arrays.asList("g", "i"), ((RESubstituteToken) tokens[0]).getModifiers());
+    }
+
+    @Test public void testSubstituteInvalid()
+    {
+        Token[] tokens = TestCaseProvider.getTokens("s{a} x;");
+
+        Assert.assertEquals(2, tokens.length);
+
+        Assert.assertThat(tokens[0], IsInstanceOf.instanceOf(RESubstituteToken.class));
+        Assert.assertEquals("s{a} x", tokens[0].getContent());
+        Assert.assertTrue(tokens[0].hasAttribute(Token.Attribute.INVALID));
+
+        Assert.assertEquals("a", ((RESubstituteToken) tokens[0]).getMatch());
+        Assert.assertNull(((RESubstituteToken) tokens[0]).getSubstitution());
+        Assert.assertEquals(Arrays.asList("x"), ((RESubstituteToken) tokens[0]).getModifiers());
+    }
 }
@@ -0,0 +1,121 @@
+package org.scriptkitty.ppi4j.tokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.scriptkitty.ppi4j.Token;
+import org.scriptkitty.ppi4j.token.HereDocToken;
+
+
+public class TestSegmentedTokenizer
+{
+    //~ Static fields/initializers
+
+    private static final String SOURCE =
+        "package Foo;\n\nuse strict;\n\nsub foo\n{\n    return <<EOT;\nbody\nEOT\n}\n\n=head1 BAR\n\nbar\n\n=cut\n\nsub bar { 1 }\r\n" +
+        "package Foo::Bar;\nsub baz\n{\n    my $x = 1 / 2;\n}\n1;\n__END__\n\nsub not_code\n";
+
+    //~ Instance fields
+
+    private ExecutorService executor;
+
+    //~ Methods
+
+    @Before public void setUp()
+    {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @After public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test public void testFindSplitPoints()
+    {
+        int[] points = SegmentedTokenizer.findSplitPoints(SOURCE, 1);
+
+        Assert.assertArrayEquals(new int[]
+            {
+                SOURCE.indexOf("sub foo"), SOURCE.indexOf("=head1"), SOURCE.indexOf("sub bar"), SOURCE.indexOf("package Foo::Bar"),
+                SOURCE.indexOf("sub baz"), SOURCE.indexOf("__END__")
+            }, points);
+
+        // the segments must be at least 30 chars long
+        points = SegmentedTokenizer.findSplitPoints(SOURCE, 30);
+
+        Assert.assertArrayEquals(new int[] { SOURCE.indexOf("=head1"), SOURCE.indexOf("package Foo::Bar"), SOURCE.indexOf("__END__") },
+            points);
+    }
+
+    @Test public void testSplit() throws Exception
+    {
+        assertSameAsSequential(SOURCE, true);
+    }
+
+    @Test public void testUnsafeSplit() throws Exception
+    {
+        // the 'sub' line is part of the heredoc
+        assertSameAsSequential("print <<EOT;\nfoo\nsub foo {\nEOT\nsub bar { }\n", false);
+
+        // ...and part of a statement
+        assertSameAsSequential("my $x = 1\nsub foo { }\n", false);
+
+        // the '=cut' ends the pod block but the next segment does not start w/ a declaration
+        assertSameAsSequential("foo();\n=pod\n\n=cut\n$x / 2;\nsub foo { }\n", false);
+    }
+
+    @Test public void testShortSource() throws Exception
+    {
+        SegmentedTokenizer tokenizer = new SegmentedTokenizer(SOURCE, executor);
+
+        Assert.assertEquals(describe(new Tokenizer(SOURCE).getTokens()), describe(tokenizer.getTokens()));
+        Assert.assertFalse(tokenizer.isSplit());
+    }
+
+    private void assertSameAsSequential(String source, boolean split) throws Exception
+    {
+        Tokenizer sequential = new Tokenizer(source);
+        SegmentedTokenizer segmented = new SegmentedTokenizer(source, executor, 1);
+
+        Assert.assertEquals(describe(sequential.getTokens()), describe(segmented.getTokens()));
+        Assert.assertEquals(split, segmented.isSplit());
+
+        LineIndex expected = sequential.getLineIndex();
+        LineIndex actual = segmented.getLineIndex();
+
+        Assert.assertEquals(expected.getLineCount(), actual.getLineCount());
+
+        for (int line = 1; line <= expected.getLineCount(); line++)
+        {
+            Assert.assertEquals(expected.lineToOffset(line), actual.lineToOffset(line));
+        }
+    }
+
+    private List<String> describe(List<Token> tokens)
+    {
+        List<String> list = new ArrayList<>();
+
+        for (Token token : tokens)
+        {
+            String string = token.toString();
+
+            if (token instanceof HereDocToken)
+            {
+                HereDocToken heredoc = (HereDocToken) token;
+                string += " " + heredoc.getHereDocOffset() + " " + heredoc.getTerminatorOffset() + " " + heredoc.getEndOffset();
+            }
+
+            list.add(string);
+        }
+
+        return list;
+    }
+}
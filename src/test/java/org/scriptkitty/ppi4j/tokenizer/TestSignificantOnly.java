@@ -0,0 +1,133 @@
+package org.scriptkitty.ppi4j.tokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hamcrest.core.IsInstanceOf;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.scriptkitty.ppi4j.Document;
+import org.scriptkitty.ppi4j.Token;
+import org.scriptkitty.ppi4j.parser.DefaultTokenProvider;
+import org.scriptkitty.ppi4j.parser.ParserFactory;
+import org.scriptkitty.ppi4j.token.DataToken;
+import org.scriptkitty.ppi4j.token.EndToken;
+import org.scriptkitty.ppi4j.token.SeparatorToken;
+
+
+public class TestSignificantOnly
+{
+    //~ Static fields/initializers
+
+    private static final String SOURCE =
+        "#!/usr/bin/perl\n\n=head1 NAME\n\nfoo\n\n=cut\n\nuse strict;   # trailing\nprint <<EOT;\n# not a comment\nEOT\n" +
+        "my $x = 1; # another\n\n=pod\n\nmore pod\n\n=cut\nexit $x\n__DATA__\nline one\n=head1 DATA POD\nline two\n";
+
+    //~ Methods
+
+    @Test public void testDocument() throws Exception
+    {
+        DefaultTokenProvider provider = new DefaultTokenProvider(SOURCE);
+        provider.setSignificantOnly(true);
+
+        Document document = ParserFactory.createParser(provider).parse();
+
+        for (Token token : document.getTokens())
+        {
+            Assert.assertTrue(token.toString(), token.isSignificant());
+        }
+
+        Assert.assertEquals(describe(expected()), describe(document.getTokens()));
+    }
+
+    @Test public void testEnd() throws Exception
+    {
+        String source = "print 1;\n__END__\nfoo\n";
+        List<Token> all = new Tokenizer(source).getTokens();
+
+        Assert.assertThat(all.get(all.size() - 1), IsInstanceOf.instanceOf(EndToken.class));
+
+        Tokenizer tokenizer = new Tokenizer(source);
+        tokenizer.setSignificantOnly(true);
+
+        List<Token> tokens = tokenizer.getTokens();
+
+        // the separator is the last token, the text after it is omitted
+        Assert.assertEquals(describe(significant(all)), describe(tokens));
+        Assert.assertThat(tokens.get(tokens.size() - 1), IsInstanceOf.instanceOf(SeparatorToken.class));
+    }
+
+    @Test public void testSkipped() throws Exception
+    {
+        Tokenizer tokenizer = new Tokenizer(SOURCE);
+        tokenizer.setSignificantOnly(true);
+
+        Assert.assertEquals(describe(expected()), describe(tokenizer.getTokens()));
+
+        // the lines after the data separator are still indexed
+        Assert.assertEquals(25, tokenizer.getLineIndex().getLineCount());
+    }
+
+    @Test public void testTrailingSpace() throws Exception
+    {
+        // the space added at the end of the source is still removed from the last token
+        Tokenizer tokenizer = new Tokenizer("# comment\nprint \"a");
+        tokenizer.setSignificantOnly(true);
+
+        List<Token> tokens = tokenizer.getTokens();
+
+        Assert.assertEquals(2, tokens.size());
+        Assert.assertEquals("\"a", tokens.get(1).getContent());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAlreadyStarted() throws Exception
+    {
+        Tokenizer tokenizer = new Tokenizer(SOURCE);
+        tokenizer.next();
+        tokenizer.setSignificantOnly(true);
+    }
+
+    private List<String> describe(List<Token> tokens)
+    {
+        List<String> list = new ArrayList<>();
+
+        for (Token token : tokens)
+        {
+            list.add(token.toString());
+        }
+
+        return list;
+    }
+
+    /*
+     * the significant tokens of a normal run, except for the text after '__DATA__' - it is a significant DataToken but is omitted as well
+     */
+    private List<Token> expected() throws Exception
+    {
+        List<Token> tokens = significant(new Tokenizer(SOURCE).getTokens());
+
+        Token data = tokens.remove(tokens.size() - 1);
+        Assert.assertThat(data, IsInstanceOf.instanceOf(DataToken.class));
+        Assert.assertTrue(data.isSignificant());
+
+        return tokens;
+    }
+
+    private List<Token> significant(List<Token> tokens)
+    {
+        List<Token> list = new ArrayList<>();
+
+        for (Token token : tokens)
+        {
+            if (token.isSignificant())
+            {
+                list.add(token);
+            }
+        }
+
+        return list;
+    }
+}
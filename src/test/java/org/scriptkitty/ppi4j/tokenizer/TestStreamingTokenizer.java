@@ -0,0 +1,155 @@
+package org.scriptkitty.ppi4j.tokenizer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.scriptkitty.ppi4j.Token;
+import org.scriptkitty.ppi4j.exception.TokenizerException;
+import org.scriptkitty.ppi4j.exception.UncheckedTokenizerException;
+
+
+public class TestStreamingTokenizer
+{
+    //~ Methods
+
+    @Test public void testIterator() throws Exception
+    {
+        String source = "my $x = 1 / 2; # half\nprint $x x 3, <STDIN>;\n";
+        List<Token> expected = new Tokenizer(source).getTokens();
+
+        Tokenizer tokenizer = new Tokenizer(source);
+
+        // the first token is taken through next(), the rest through the iterator
+        Assert.assertEquals(expected.get(0).getContent(), tokenizer.next().getContent());
+
+        int index = 1;
+        for (Token token : tokenizer)
+        {
+            Assert.assertEquals(expected.get(index++).getContent(), token.getContent());
+        }
+
+        Assert.assertEquals(expected.size(), index);
+        Assert.assertTrue(tokenizer.next().isEOF());
+        Assert.assertFalse(tokenizer.iterator().hasNext());
+        Assert.assertTrue(tokenizer.getTokens().isEmpty());
+    }
+
+    @Test public void testIteratorError() throws Exception
+    {
+        final IOException error = new IOException("read failed");
+
+        Tokenizer tokenizer = new Tokenizer(new Reader()
+                {
+                    @Override public void close()
+                    {
+                    }
+
+                    @Override public int read(char[] cbuf, int off, int len) throws IOException
+                    {
+                        throw error;
+                    }
+                });
+
+        try
+        {
+            tokenizer.iterator().hasNext();
+            Assert.fail("the read error was not reported");
+        }
+        catch (UncheckedTokenizerException e)
+        {
+            Assert.assertSame(error, e.getCause().getCause());
+        }
+    }
+
+    @Test public void testLargeSource() throws Exception
+    {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 500; i++)
+        {
+            builder.append("my $x").append(i).append(" = <<\"EOT\" . 'q';\r\n");
+            builder.append("line ").append(i).append("\r\nEOT\r\n");
+            builder.append("print qq{").append(i).append("\n} if $x").append(i).append(" =~ m/\\d+/;\n");
+            builder.append("\n=pod\n\ndocs\n\n=cut\n\n# comment ").append(i).append('\n');
+        }
+
+        // a line longer than the read buffer
+        builder.append("my @list = (");
+        for (int i = 0; i < 5000; i++)
+        {
+            builder.append(i).append(", ");
+        }
+
+        builder.append(");\n__END__\ntrailing data");
+
+        assertSameTokens(builder.toString());
+    }
+
+    @Test public void testSmallSources() throws Exception
+    {
+        assertSameTokens("");
+        assertSameTokens("1");
+        assertSameTokens("foo bar");
+        assertSameTokens("print 1;\r\n");
+        assertSameTokens("__END__");
+        assertSameTokens("my $x = <<EOT;\nbody\nEOT");
+    }
+
+    private void assertSameTokens(String source) throws TokenizerException
+    {
+        List<Token> expected = new Tokenizer(source).getTokens();
+
+        // deliver the source a few chars at a time to exercise every buffer boundary
+        Tokenizer tokenizer = new Tokenizer(new ChunkedReader(source, 7));
+
+        int index = 0;
+        Token token = tokenizer.next();
+
+        while (!token.isEOF())
+        {
+            Assert.assertTrue(index < expected.size());
+
+            Token other = expected.get(index++);
+
+            Assert.assertEquals(other.getClass(), token.getClass());
+            Assert.assertEquals(other.getContent(), token.getContent());
+            Assert.assertEquals(other.getStartOffset(), token.getStartOffset());
+            Assert.assertEquals(other.getLineNumber(), token.getLineNumber());
+            Assert.assertEquals(other.getColumn(), token.getColumn());
+
+            token = tokenizer.next();
+        }
+
+        Assert.assertEquals(expected.size(), index);
+    }
+
+    //~ Inner Classes
+
+    private static class ChunkedReader extends Reader
+    {
+        private final int chunk;
+
+        private final Reader reader;
+
+        ChunkedReader(String source, int chunk)
+        {
+            this.reader = new StringReader(source);
+            this.chunk = chunk;
+        }
+
+        @Override public void close() throws IOException
+        {
+            reader.close();
+        }
+
+        @Override public int read(char[] cbuf, int off, int len) throws IOException
+        {
+            return reader.read(cbuf, off, Math.min(len, chunk));
+        }
+    }
+}
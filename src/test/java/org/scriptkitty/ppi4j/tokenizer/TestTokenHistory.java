@@ -0,0 +1,46 @@
+package org.scriptkitty.ppi4j.tokenizer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.scriptkitty.ppi4j.Token;
+import org.scriptkitty.ppi4j.token.WhitespaceToken;
+import org.scriptkitty.ppi4j.token.WordToken;
+
+
+public class TestTokenHistory
+{
+    //~ Methods
+
+    @Test public void testHistory()
+    {
+        TokenHistory history = new TokenHistory();
+
+        Assert.assertSame(WhitespaceToken.NULL, history.get(0));
+
+        Token[] words = new Token[6];
+        for (int i = 0; i < words.length; i++)
+        {
+            words[i] = new WordToken();
+            words[i].setContent("w" + i);
+
+            history.add(words[i]);
+
+            // insignificant tokens are skipped
+            Token space = new WhitespaceToken();
+            space.setContent(" ");
+            history.add(space);
+        }
+
+        for (int i = 0; i < TokenHistory.CAPACITY; i++)
+        {
+            Assert.assertSame(words[words.length - 1 - i], history.get(i));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLookbackTooDeep()
+    {
+        new TokenHistory().get(TokenHistory.CAPACITY);
+    }
+}
@@ -0,0 +1,167 @@
+package org.scriptkitty.ppi4j.tokenizer;
+
+import java.io.StringReader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.scriptkitty.ppi4j.Token;
+import org.scriptkitty.ppi4j.token.HereDocToken;
+
+
+public class TestTokenizerState
+{
+    //~ Static fields/initializers
+
+    private static final String SOURCE =
+        "my $x = <<EOT;\nfoo\nEOT\nmy $y = $x / 2;\n\n=pod\n\nsome pod\n\n=cut\n\nprint $y =~ /foo/;\r\nexit;\n__END__\nthe end\n";
+
+    //~ Methods
+
+    @Test public void testConcurrentRestore() throws Exception
+    {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 2000; i++)
+        {
+            builder.append("my $x").append(i).append(" = $y / ").append(i).append(";\n");
+        }
+
+        final String source = builder.toString();
+        List<Token> expected = new Tokenizer(source).getTokens();
+
+        final Tokenizer tokenizer = new Tokenizer(source);
+        for (int i = 0; i < 100; i++)
+        {
+            tokenizer.next();
+        }
+
+        TokenizerState state = tokenizer.getState();
+        List<String> rest = describe(tail(expected, state.getTokenOffset()));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try
+        {
+            // the source tokenizer keeps reading lines, and growing its line index, while the snapshot is restored
+            Future<List<Token>> remaining = executor.submit(new Callable<List<Token>>()
+                {
+                    @Override public List<Token> call() throws Exception
+                    {
+                        return tokenizer.getTokens();
+                    }
+                });
+
+            for (int i = 0; i < 20; i++)
+            {
+                Tokenizer restored = new Tokenizer(source, state);
+
+                Assert.assertEquals(rest, describe(restored.getTokens()));
+                Assert.assertEquals(state.getSourceOffset(), restored.getLineIndex().lineToOffset(state.getLineNumber()));
+            }
+
+            remaining.get();
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test public void testRestore() throws Exception
+    {
+        List<Token> expected = new Tokenizer(SOURCE).getTokens();
+
+        Tokenizer tokenizer = new Tokenizer(SOURCE);
+
+        List<Token> returned = new ArrayList<>();
+        List<TokenizerState> states = new ArrayList<>();
+
+        for (Token token = tokenizer.next(); token != Token.EOF; token = tokenizer.next())
+        {
+            states.add(tokenizer.getState());
+            returned.add(token);
+        }
+
+        Assert.assertEquals(describe(expected), describe(returned));
+
+        for (TokenizerState state : states)
+        {
+            List<Token> rest = tail(expected, state.getTokenOffset());
+
+            Assert.assertEquals(describe(rest), describe(new Tokenizer(SOURCE, state).getTokens()));
+
+            StringReader reader = new StringReader(SOURCE.substring(state.getSourceOffset()));
+            Assert.assertEquals(describe(rest), describe(new Tokenizer(reader, state).getTokens()));
+        }
+    }
+
+    @Test public void testRestoreAfterEdit() throws Exception
+    {
+        Tokenizer tokenizer = new Tokenizer(SOURCE);
+
+        TokenizerState state = tokenizer.getState();
+        while (state.getLineNumber() < 6)
+        {
+            tokenizer.next();
+            state = tokenizer.getState();
+        }
+
+        String edited = SOURCE.substring(0, state.getSourceOffset()) + "exit 1;\n";
+
+        Tokenizer restored = new Tokenizer(edited, state);
+        List<Token> tokens = restored.getTokens();
+
+        Assert.assertEquals(describe(tail(new Tokenizer(edited).getTokens(), state.getTokenOffset())), describe(tokens));
+        Assert.assertEquals(state.getLineNumber() + 1, restored.getLineIndex().getLineCount());
+        Assert.assertEquals(state.getSourceOffset(), restored.getLineIndex().lineToOffset(state.getLineNumber()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotLineStart() throws Exception
+    {
+        Tokenizer tokenizer = new Tokenizer(SOURCE);
+        tokenizer.next();
+
+        TokenizerState state = tokenizer.getState();
+
+        // the line the state was taken at has been joined to the previous one
+        new Tokenizer(SOURCE.replace("EOT\n", "EOT "), state);
+    }
+
+    private List<String> describe(List<Token> tokens)
+    {
+        List<String> list = new ArrayList<>();
+
+        for (Token token : tokens)
+        {
+            String string = token.toString();
+
+            if (token instanceof HereDocToken)
+            {
+                string += " " + ((HereDocToken) token).getHereDocOffset() + " " + ((HereDocToken) token).getEndOffset();
+            }
+
+            list.add(string);
+        }
+
+        return list;
+    }
+
+    private List<Token> tail(List<Token> tokens, int offset)
+    {
+        int index = 0;
+        while ((index < tokens.size()) && (tokens.get(index).getStartOffset() < offset))
+        {
+            index++;
+        }
+
+        return tokens.subList(index, tokens.size());
+    }
+}
@@ -0,0 +1,138 @@
+package org.scriptkitty.ppi4j.util;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.scriptkitty.ppi4j.Token;
+import org.scriptkitty.ppi4j.tokenizer.Tokenizer;
+
+
+public class TestMappedFileReader
+{
+    //~ Methods
+
+    @Test public void testLatin1() throws Exception
+    {
+        assertMapped("my $cafe = 'na\u00efve';\n# \u00fcber\nprint $cafe, \"\u00e9\";\n", StandardCharsets.ISO_8859_1);
+    }
+
+    @Test public void testMalformed() throws Exception
+    {
+        // truncated
+        assertDecoded(0x61, 0xe2, 0x82, 0x62, 0x0a);
+        assertDecoded(0x61, 0xc3, 0x20, 0xe2, 0x82, 0x62);
+        assertDecoded(0x61, 0xf0, 0x9f, 0x98, 0x0a);
+        assertDecoded(0x61, 0xe2, 0x82);
+        assertDecoded(0xf0, 0x9f);
+
+        // overlong
+        assertDecoded(0xc0, 0xaf, 0x61);
+        assertDecoded(0xe0, 0x80, 0xaf, 0x61);
+        assertDecoded(0xf0, 0x80, 0x80, 0xaf, 0x61);
+
+        // surrogates, past U+10FFFF, stray continuation bytes and invalid leads
+        assertDecoded(0xed, 0xa0, 0x80, 0x61);
+        assertDecoded(0xf4, 0x90, 0x80, 0x80, 0x61);
+        assertDecoded(0x80, 0xbf, 0x61, 0xf8, 0x88, 0x80, 0x80, 0x80, 0xff);
+
+        // a mix of valid and invalid sequences
+        assertDecoded(0xc3, 0xa9, 0xe2, 0x82, 0xf0, 0x9f, 0x98, 0x80, 0xe2, 0x82, 0xac, 0x61, 0xf0, 0x9f, 0x61);
+    }
+
+    @Test public void testUTF8() throws Exception
+    {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 200; i++)
+        {
+            builder.append("my $s").append(i).append(" = \"caf\u00e9 \u20ac").append(i).append(" \ud83d\ude00\";\n");
+            builder.append("# \u00fcber ").append(i).append('\n');
+        }
+
+        builder.append("print <<EOT;\n\u00e9t\u00e9\nEOT\n");
+
+        assertMapped(builder.toString(), StandardCharsets.UTF_8);
+    }
+
+    private void assertDecoded(int... values) throws Exception
+    {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++)
+        {
+            bytes[i] = (byte) values[i];
+        }
+
+        String expected = new String(bytes, StandardCharsets.UTF_8);
+
+        Path path = Files.createTempFile("ppi4j", ".pl");
+
+        try
+        {
+            Files.write(path, bytes);
+
+            StringBuilder builder = new StringBuilder();
+            char[] chars = new char[3];
+
+            try (MappedFileReader reader = MappedFileReader.open(path, StandardCharsets.UTF_8))
+            {
+                int read;
+                while ((read = reader.read(chars, 0, chars.length)) != -1)
+                {
+                    builder.append(chars, 0, read);
+                }
+
+                Assert.assertEquals(expected, builder.toString());
+
+                // the text after the last replacement char maps back to the end of the file
+                int last = expected.lastIndexOf('\ufffd') + 1;
+                int tail = expected.substring(last).getBytes(StandardCharsets.UTF_8).length;
+
+                Assert.assertEquals(bytes.length - tail, reader.getByteOffset(last));
+                Assert.assertEquals(bytes.length, reader.getByteOffset(expected.length()));
+            }
+        }
+        finally
+        {
+            Files.delete(path);
+        }
+    }
+
+    private void assertMapped(String source, Charset charset) throws Exception
+    {
+        Path path = Files.createTempFile("ppi4j", ".pl");
+
+        try
+        {
+            Files.write(path, source.getBytes(charset));
+
+            List<Token> expected = new Tokenizer(source).getTokens();
+
+            MappedFileReader reader = MappedFileReader.open(path, charset);
+            List<Token> tokens = new Tokenizer(reader).getTokens();
+
+            Assert.assertEquals(expected.size(), tokens.size());
+
+            for (int i = 0; i < expected.size(); i++)
+            {
+                Token token = tokens.get(i);
+                Assert.assertEquals(expected.get(i).getContent(), token.getContent());
+                Assert.assertEquals(expected.get(i).getStartOffset(), token.getStartOffset());
+
+                int offset = Math.min(token.getStartOffset(), source.length());
+                int bytes = source.substring(0, offset).getBytes(charset).length;
+
+                Assert.assertEquals(bytes, reader.getByteOffset(token.getStartOffset()));
+            }
+        }
+        finally
+        {
+            Files.delete(path);
+        }
+    }
+}